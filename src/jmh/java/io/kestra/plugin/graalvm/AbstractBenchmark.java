@@ -0,0 +1,47 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.micronaut.context.ApplicationContext;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Start a Kestra application context backed by the memory repository and a throw-away local storage,
+ * so that benchmarks run the tasks the same way the tests do.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractBenchmark {
+    protected ApplicationContext applicationContext;
+    protected RunContextFactory runContextFactory;
+    protected StorageInterface storageInterface;
+
+    private Path storagePath;
+
+    @Setup(Level.Trial)
+    public void startApplicationContext() throws IOException {
+        storagePath = Files.createTempDirectory("graalvm-benchmark");
+        applicationContext = ApplicationContext.run(Map.of("kestra.storage.local.base-path", storagePath.toString()));
+        runContextFactory = applicationContext.getBean(RunContextFactory.class);
+        storageInterface = applicationContext.getBean(StorageInterface.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplicationContext() throws IOException {
+        applicationContext.close();
+
+        try (Stream<Path> paths = Files.walk(storagePath)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of copying a guest value into host objects with {@link AbstractScript#as(Value)}, on a list of {@link #size}
+ * records each holding scalars, a nested map and an array.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ConversionBenchmark {
+    @Param({"js", "python", "ruby"})
+    public String language;
+
+    @Param({"10", "1000"})
+    public int size;
+
+    private Context context;
+    private AbstractScript task;
+    private Value value;
+
+    @Setup(Level.Trial)
+    public void createValue() {
+        // Ruby uses symbols for `key: value`, keep string keys like the other languages
+        String separator = language.equals("ruby") ? " => " : ": ";
+        String record = "{"
+            + "'id'" + separator + "1, "
+            + "'name'" + separator + "'Main_Page', "
+            + "'views'" + separator + "5969.5, "
+            + "'tags'" + separator + "['a', 'b', 'c'], "
+            + "'nested'" + separator + "{'date'" + separator + "'2025-03-19', 'count'" + separator + "12}"
+            + "}";
+        String literal = IntStream.range(0, size)
+            .mapToObj(i -> record)
+            .collect(Collectors.joining(", ", "[", "]"));
+
+        context = Context.newBuilder(language)
+            .allowAllAccess(true)
+            .build();
+        value = context.eval(language, language.equals("js") ? "(" + literal + ")" : literal);
+
+        task = switch (language) {
+            case "js" -> new io.kestra.plugin.graalvm.js.Eval();
+            case "python" -> new io.kestra.plugin.graalvm.python.Eval();
+            case "ruby" -> new io.kestra.plugin.graalvm.ruby.Eval();
+            default -> throw new IllegalArgumentException("Unknown language " + language);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void closeContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object as() {
+        return task.as(value);
+    }
+}
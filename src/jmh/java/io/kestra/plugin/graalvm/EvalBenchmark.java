@@ -0,0 +1,89 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a whole {@link AbstractEval#run} per language: {@link #warmEngine()} measures a run once the shared engine
+ * and source cache are warm, {@link #coldEngine()} measures the very first run of a fresh JVM.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class EvalBenchmark extends AbstractBenchmark {
+    @Param({"js", "python", "ruby"})
+    public String language;
+
+    @Param({"false", "true"})
+    public boolean pooled;
+
+    private AbstractEval task;
+
+    @Setup(Level.Trial)
+    public void buildTask() {
+        task = switch (language) {
+            case "js" -> io.kestra.plugin.graalvm.js.Eval.builder()
+                .id("eval")
+                .type(io.kestra.plugin.graalvm.js.Eval.class.getName())
+                .script(Property.ofValue("""
+                    var map = {};
+                    for (var i = 0; i < 100; i++) {
+                      map['key' + i] = i * 2;
+                    }
+                    ({map: map})
+                    """))
+                .outputs(Property.ofValue(List.of("map")))
+                .pooled(Property.ofValue(pooled))
+                .build();
+            case "python" -> io.kestra.plugin.graalvm.python.Eval.builder()
+                .id("eval")
+                .type(io.kestra.plugin.graalvm.python.Eval.class.getName())
+                .script(Property.ofValue("""
+                    map = {}
+                    for i in range(100):
+                        map['key' + str(i)] = i * 2
+                    """))
+                .outputs(Property.ofValue(List.of("map")))
+                .pooled(Property.ofValue(pooled))
+                .build();
+            case "ruby" -> io.kestra.plugin.graalvm.ruby.Eval.builder()
+                .id("eval")
+                .type(io.kestra.plugin.graalvm.ruby.Eval.class.getName())
+                .script(Property.ofValue("""
+                    map = {}
+                    100.times { |i| map["key#{i}"] = i * 2 }
+                    return {map: map}
+                    """))
+                .outputs(Property.ofValue(List.of("map")))
+                .pooled(Property.ofValue(pooled))
+                .build();
+            default -> throw new IllegalArgumentException("Unknown language " + language);
+        };
+    }
+
+    @Benchmark
+    public Object warmEngine() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        return task.run(runContext);
+    }
+
+    /**
+     * One shot per fork, so that every measurement pays for the engine creation, the language initialization
+     * and the parsing of the script.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 0)
+    @Measurement(iterations = 1)
+    @Fork(5)
+    public Object coldEngine() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        return task.run(runContext);
+    }
+}
@@ -0,0 +1,218 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.IdUtils;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of {@link AbstractFileTransform} per language, sequential or with a pool of concurrent contexts,
+ * on the {@code wikipedia_page_view.ion} test sample replicated to {@link #ROWS} rows.
+ * <p>
+ * The run context has {@link #variables} entries in both its {@code inputs} and {@code vars}, standing for a flow with large
+ * variable trees. With {@link #binding} {@code context} the run context is bound once per context and each row only swaps the
+ * {@code row} binding; with {@code row} the run context is bound again for every row, measuring what binding it once saves:
+ * {@code ./gradlew jmh -PjmhArgs="FileTransformBenchmark -p concurrent=1 -p variables=500"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class FileTransformBenchmark extends AbstractBenchmark {
+    static final int ROWS = 10_000;
+
+    @Param({"js", "python", "ruby"})
+    public String language;
+
+    @Param({"1", "4"})
+    public int concurrent;
+
+    @Param({"context", "row"})
+    public String binding;
+
+    @Param({"0", "500"})
+    public int variables;
+
+    private AbstractFileTransform task;
+    private Map<String, Object> runVariables;
+
+    @Setup(Level.Trial)
+    public void buildTask() throws Exception {
+        byte[] sample;
+        try (InputStream is = FileTransformBenchmark.class.getClassLoader().getResourceAsStream("wikipedia_page_view.ion")) {
+            sample = is.readAllBytes();
+        }
+
+        long sampleRows;
+        try (InputStream is = new ByteArrayInputStream(sample)) {
+            sampleRows = FileSerde.readAll(is).count().block();
+        }
+        if (ROWS % sampleRows != 0) {
+            throw new IllegalStateException("The sample has " + sampleRows + " rows, " + ROWS + " is not a multiple of it");
+        }
+
+        ByteArrayOutputStream replicated = new ByteArrayOutputStream();
+        for (int i = 0; i < ROWS / sampleRows; i++) {
+            replicated.write(sample);
+            replicated.write('\n');
+        }
+
+        URI uri = storageInterface.put(
+            TenantService.MAIN_TENANT,
+            null,
+            new URI("/" + IdUtils.create()),
+            new ByteArrayInputStream(replicated.toByteArray())
+        );
+
+        Map<String, Object> tree = LinkedHashMap.newLinkedHashMap(variables);
+        for (int i = 0; i < variables; i++) {
+            tree.put("key" + i, Map.of("id", i, "name", "value" + i, "tags", List.of("a" + i, "b" + i)));
+        }
+        runVariables = Map.of("inputs", tree, "vars", tree);
+
+        Property<Integer> concurrency = concurrent > 1 ? Property.ofValue(concurrent) : null;
+
+        task = switch (language) {
+            case "js" -> io.kestra.plugin.graalvm.js.FileTransform.builder()
+                .id("fileTransform")
+                .type(io.kestra.plugin.graalvm.js.FileTransform.class.getName())
+                .from(Property.ofValue(uri.toString()))
+                .concurrent(concurrency)
+                .script(Property.ofValue("""
+                    if (row['title'] === 'Main_Page') {
+                      row = null
+                    } else {
+                      row['date'] = String(row['date']).substring(0, 10)
+                    }
+                    """))
+                .build();
+            case "python" -> io.kestra.plugin.graalvm.python.FileTransform.builder()
+                .id("fileTransform")
+                .type(io.kestra.plugin.graalvm.python.FileTransform.class.getName())
+                .from(Property.ofValue(uri.toString()))
+                .concurrent(concurrency)
+                .script(Property.ofValue("""
+                    if row['title'] == 'Main_Page':
+                        row = None
+                    else:
+                        row['date'] = str(row['date'])[0:10]
+                    """))
+                .build();
+            case "ruby" -> io.kestra.plugin.graalvm.ruby.FileTransform.builder()
+                .id("fileTransform")
+                .type(io.kestra.plugin.graalvm.ruby.FileTransform.class.getName())
+                .from(Property.ofValue(uri.toString()))
+                .concurrent(concurrency)
+                .script(Property.ofValue("""
+                    row = Polyglot.import('row')
+                    if row[:title] == 'Main_Page'
+                      Polyglot.export('row', nil)
+                    else
+                      row[:date] = row[:date].toString[0,10]
+                    end
+                    """))
+                .build();
+            default -> throw new IllegalArgumentException("Unknown language " + language);
+        };
+
+        if (binding.equals("row")) {
+            AbstractFileTransform rebinding = switch (language) {
+                case "js" -> new RowBindingJs();
+                case "python" -> new RowBindingPython();
+                default -> new RowBindingRuby();
+            };
+            // the properties of the built task, set on the subclass without a builder
+            for (Class<?> type = AbstractFileTransform.class; type != Object.class; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (!Modifier.isStatic(field.getModifiers())) {
+                        field.setAccessible(true);
+                        field.set(rebinding, field.get(task));
+                    }
+                }
+            }
+            task = rebinding;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public Object transform() throws Exception {
+        return task.run(runContextFactory.of(runVariables));
+    }
+
+    private static final ThreadLocal<Boolean> BINDING = new ThreadLocal<>();
+
+    // the bindings are looked up for every row: the run context is bound again each time, except while it is being bound
+    private static Value rebind(AbstractScript task, RunContext runContext, Context context, String languageId, Value bindings) {
+        if (BINDING.get() == null) {
+            BINDING.set(true);
+            try {
+                task.bind(runContext, context, languageId);
+            } finally {
+                BINDING.remove();
+            }
+        }
+        return bindings;
+    }
+
+    public static class RowBindingJs extends io.kestra.plugin.graalvm.js.FileTransform {
+        private RunContext runContext;
+
+        @Override
+        public Output run(RunContext runContext) throws Exception {
+            this.runContext = runContext;
+            return super.run(runContext);
+        }
+
+        @Override
+        protected Value getBindings(Context context, String languageId) {
+            return rebind(this, runContext, context, languageId, super.getBindings(context, languageId));
+        }
+    }
+
+    public static class RowBindingPython extends io.kestra.plugin.graalvm.python.FileTransform {
+        private RunContext runContext;
+
+        @Override
+        public Output run(RunContext runContext) throws Exception {
+            this.runContext = runContext;
+            return super.run(runContext);
+        }
+
+        @Override
+        protected Value getBindings(Context context, String languageId) {
+            return rebind(this, runContext, context, languageId, super.getBindings(context, languageId));
+        }
+    }
+
+    public static class RowBindingRuby extends io.kestra.plugin.graalvm.ruby.FileTransform {
+        private RunContext runContext;
+
+        @Override
+        public Output run(RunContext runContext) throws Exception {
+            this.runContext = runContext;
+            return super.run(runContext);
+        }
+
+        @Override
+        protected Value getBindings(Context context, String languageId) {
+            return rebind(this, runContext, context, languageId, super.getBindings(context, languageId));
+        }
+    }
+}
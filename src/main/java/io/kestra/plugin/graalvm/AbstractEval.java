@@ -1,16 +1,19 @@
 package io.kestra.plugin.graalvm;
 
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import jakarta.validation.constraints.Min;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
 import org.graalvm.polyglot.Value;
 
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
-import java.util.HashMap;
+import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 import io.kestra.core.models.annotations.PluginProperty;
@@ -28,117 +31,165 @@ public abstract class AbstractEval extends AbstractScript implements RunnableTas
     @PluginProperty(group = "advanced")
     protected Property<List<String>> outputs;
 
+    @Schema(
+        title = "Reuse pre-initialized contexts across executions",
+        description = "When true, contexts are checked out from a process-wide pool per language, tenant and namespace instead of being created and closed on each run, " +
+            "which avoids paying the language initialization (seconds for Python and Ruby) on every execution. " +
+            "Bindings added by a run are removed before the context is reused, but other guest state (imported modules, Ruby globals) survives; " +
+            "JavaScript tasks ignore it, as their top-level declarations can't be cleared from a context, and always run on a new one; " +
+            "relative file paths are not resolved against the task working directory, use `runContext.workingDir()` instead."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> pooled = Property.ofValue(false);
+
+    @Schema(
+        title = "Maximum number of idle pooled contexts",
+        description = "Only used when `pooled` is true; counted per language, tenant and namespace. Runs never wait for a context, extra ones are closed when given back."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Integer> poolSize = Property.ofValue(4);
+
+    @Schema(
+        title = "Maximum number of runs served by a pooled context",
+        description = "Only used when `pooled` is true; the context is closed and replaced once it has been used this many times."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Integer> poolMaxReuse = Property.ofValue(100);
+
+    @Schema(
+        title = "Idle time after which a pooled context is closed",
+        description = "Only used when `pooled` is true."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> poolIdleTimeout = Property.ofValue(Duration.ofMinutes(5));
+
     protected Output run(RunContext runContext, String languageId) throws Exception {
-        Thread stdOut = null;
-        Thread stdErr = null;
-
-        try (var outStream = new PipedOutputStream();
-             var inStream = new PipedInputStream(outStream);
-             var errStream = new PipedOutputStream();
-             var inErrStream = new PipedInputStream(errStream);
-             var context = buildContext(runContext, outStream, errStream)) {
-
-            var bindings = getBindings(context, languageId);
-            // add all common vars to bindings in case of concurrency
-            runContext.getVariables().forEach(bindings::putMember);
-            bindings.putMember("runContext", new RunContextProxy(runContext));
-            bindings.putMember("logger", runContext.logger());
-
-            var source = generateSource(languageId, runContext);
-            var result = context.eval(source);
-
-            // watch for logs from output streams in separated threads
-            LogRunnable stdOutRunnable = new LogRunnable(inStream, false, runContext.logger());
-            LogRunnable stdErrRunnable = new LogRunnable(inErrStream, true, runContext.logger());
-            stdOut = Thread.ofVirtual().name("graalvm-log-out").start(stdOutRunnable);
-            stdErr = Thread.ofVirtual().name("graalvm-log-err").start(stdErrRunnable);
-
-            var renderedOutputs = runContext.render(this.outputs).asList(String.class);
-            Output.OutputBuilder builder = Output.builder();
-            if (result.canExecute()) {
-                var results = result.execute();
-                if (results.hasMembers() && !renderedOutputs.isEmpty()) {
-                    builder.outputs(gatherOutputs(renderedOutputs, results));
-                }
-            }
-            else if (result.isHostObject()){
-                builder.result(result.asHostObject());
-            }
-            else if (result.hasMembers() && !renderedOutputs.isEmpty()) {
-                builder.outputs(gatherOutputs(renderedOutputs, result));
-            }
+        WarmContextPool pool = null;
+        WarmContextPool.Pooled pooled = null;
+
+        // pooled contexts are shared with runs without a statement limit, on the plugin engine
+        if (runContext.render(this.pooled).as(Boolean.class).orElse(false) && poolable()
+            && runContext.render(this.maxStatements).as(Long.class).isEmpty()
+            && !runContext.render(this.profile).as(Boolean.class).orElse(false) && !runContext.render(this.traceMemory).as(Boolean.class).orElse(false)) {
+            pool = WarmContextPool.of(
+                String.join("/", languageId, String.valueOf(runContext.flowInfo().tenantId()), String.valueOf(runContext.flowInfo().namespace())),
+                runContext.render(this.poolSize).as(Integer.class).orElseThrow(),
+                runContext.render(this.poolMaxReuse).as(Integer.class).orElseThrow(),
+                runContext.render(this.poolIdleTimeout).as(Duration.class).orElseThrow()
+            );
+        }
 
-            return builder.build();
-        } finally  {
-            if (stdOut != null) {
-                stdOut.join();
+        // guest output is logged while the script runs
+        try (var profiler = profiler(runContext); var limiter = resourceLimiter(runContext); var logs = logPump(runContext)) {
+            var timers = new PhaseTimers();
+
+            Context context;
+            long start = timers.start();
+            if (pool != null) {
+                pooled = pool.acquire(p -> warmContext(runContext, p, languageId));
+                pooled.attach(runContext.logger(), logs);
+                context = pooled.context();
+                runContext.metric(Counter.of(pooled.reused() ? "context.pool.hits" : "context.pool.misses", 1));
+            } else {
+                context = buildContext(runContext, logs, limiter, profiler);
             }
-            if (stdErr != null) {
-                stdErr.join();
+            timers.stop(PhaseTimers.CONTEXT_CREATE, start);
+
+            limiter.enter(context);
+            try {
+                bind(runContext, context, languageId);
+
+                var source = generateSource(languageId, runContext);
+                start = timers.start();
+                var result = context.eval(source);
+                start = timers.stop(PhaseTimers.EVAL, start);
+
+                var renderedOutputs = runContext.render(this.outputs).asList(String.class);
+                Output.OutputBuilder builder = Output.builder();
+                if (result.canExecute()) {
+                    var results = result.execute();
+                    start = timers.stop(PhaseTimers.EXECUTE, start);
+                    if (results.hasMembers() && !renderedOutputs.isEmpty()) {
+                        builder.outputs(gatherOutputs(renderedOutputs, results));
+                    }
+                }
+                else if (result.isHostObject()){
+                    builder.result(result.asHostObject());
+                }
+                else if (result.hasMembers() && !renderedOutputs.isEmpty()) {
+                    builder.outputs(gatherOutputs(renderedOutputs, result));
+                }
+                timers.stop(PhaseTimers.CONVERT, start);
+
+                if (profiler != null) {
+                    builder
+                        .profile(profiler.storeSamples(runContext))
+                        .allocations(profiler.storeAllocations(runContext));
+                }
+
+                return builder.build();
+            } catch (RuntimeException e) {
+                throw limiter.failure(e);
+            } finally {
+                limiter.exit();
+                if (pooled != null) {
+                    release(pool, pooled, languageId);
+                } else {
+                    ResourceLimiter.close(context);
+                }
+                timers.report(runContext);
             }
+        } finally {
+            ended();
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> gatherOutputs(List<String> renderedOutputs, Value value) {
-        Map<String, Object> outputs = new HashMap<>();
+    private Context warmContext(RunContext runContext, WarmContextPool.Pooled pooled, String languageId) {
+        Context context = sandboxed(runContext, contextBuilder(runContext), pooled.logHandler)
+            .out(pooled.out)
+            .err(pooled.err)
+            .build();
 
-        if (value.hasHashEntries()) {
-            Map<String, Object> results = (Map<String, Object>) as(value);
-            renderedOutputs.forEach(s -> outputs.put(s, as(value.getHashValue(s))));
-            return results;
-        } else {
-            renderedOutputs.forEach(s -> outputs.put(s, as(value.getMember(s))));
-        }
+        context.initialize(languageId);
+        pooled.baseline(getBindings(context, languageId));
 
-        return outputs;
+        return context;
     }
 
-    private Object as(Value member) {
-        if (member == null) {
-            return null;
-        }
-        if (member.isString()) {
-            return member.asString();
-        }
-        if (member.isNumber() && member.fitsInInt()) {
-            return member.asInt();
-        }
-        if (member.isNumber() && member.fitsInLong()) {
-            return member.asLong();
+    private void release(WarmContextPool pool, WarmContextPool.Pooled pooled, String languageId) {
+        try {
+            // guest output may still be buffered, it must reach this run's logs, not the next one
+            flushOutput(pooled.context());
+            pool.release(pooled, getBindings(pooled.context(), languageId));
+        } catch (PolyglotException | IllegalStateException e) {
+            pooled.close();
         }
-        if (member.isNumber() && member.fitsInFloat()) {
-            return member.asFloat();
-        }
-        if (member.isNumber() && member.fitsInDouble()) {
-            return member.asDouble();
-        }
-        if (member.isProxyObject()) {
-            return member.asProxyObject();
-        }
-        if (member.isHostObject()) {
-            return member.asHostObject();
-        }
-        if (member.hasHashEntries()) {
-            Map<String, Object> values = HashMap.newHashMap((int) member.getHashSize());
-            Value iterator = member.getHashEntriesIterator();
-            while (iterator.hasIteratorNextElement()) {
-                Value value = iterator.getIteratorNextElement();
-                values.put(value.getArrayElement(0).asString(), as(value.getArrayElement(1)));
-            }
-            return values;
-        }
-        if (member.hasMembers()) {
-            // try to read members into a map
-            Map<String, Object> values = new HashMap<>();
-            member.getMemberKeys().forEach(key -> {
-                values.put(key, as(member.getMember(key)));
-            });
-            return values;
+    }
+
+    /**
+     * Whether this task can run on a pooled context, tasks needing a specific context configuration cannot.
+     */
+    protected boolean poolable() {
+        return true;
+    }
+
+    /**
+     * Flush the guest standard streams of a pooled context before it is given back.
+     */
+    protected void flushOutput(Context context) {
+    }
+
+    // a hash result (Python dict, Ruby hash) is returned whole, otherwise only the declared outputs are copied
+    private Map<String, Object> gatherOutputs(List<String> renderedOutputs, Value value) {
+        if (value.hasHashEntries()) {
+            return ValueConverter.toMap(value);
         }
 
-        // do our best to use a known type, this will crash with a ClassCastException if the type is not transformable
-        return member.as(Object.class);
+        return ValueConverter.toMap(value, renderedOutputs);
     }
 
     @Builder
@@ -152,6 +203,18 @@ public abstract class AbstractEval extends AbstractScript implements RunnableTas
             title = "The captured outputs as declared on the `outputs` task property"
         )
         private final Map<String, Object> outputs;
+
+        @Schema(
+            title = "URI of the CPU profile of the script",
+            description = "Collapsed stacks of the guest code, only set when `profile` is true."
+        )
+        private final URI profile;
+
+        @Schema(
+            title = "URI of the allocations traced in the script",
+            description = "Collapsed stacks of the guest code ending with the allocated type, only set when `traceMemory` is true."
+        )
+        private final URI allocations;
     }
 
 }
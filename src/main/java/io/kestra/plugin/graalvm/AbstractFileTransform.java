@@ -1,12 +1,18 @@
 package io.kestra.plugin.graalvm;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Gauge;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.LocalPath;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.serializers.JacksonMapper;
+import io.kestra.core.utils.IdUtils;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -14,15 +20,18 @@ import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.graalvm.polyglot.Context;
 import org.graalvm.polyglot.Source;
+import org.graalvm.polyglot.Value;
 import org.reactivestreams.Publisher;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
 
 import java.io.*;
 import java.net.URI;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 import static io.kestra.core.utils.Rethrow.throwConsumer;
@@ -35,150 +44,493 @@ import io.kestra.core.models.annotations.PluginProperty;
 @Getter
 @NoArgsConstructor
 public abstract class AbstractFileTransform extends AbstractScript implements RunnableTask<AbstractFileTransform.Output> {
+    private static final int DEFAULT_COLUMNAR_BATCH_SIZE = 1000;
+
     @NotNull
     @Schema(
         title = "Source file containing rows to transform",
-        description = "Accepts a kestra:// internal storage URI, map, or list; rows stream into the script before being rewritten as ION"
+        description = "Accepts a kestra:// internal storage URI or a file:// URI of an allowed local file (ION, JSON Lines or CSV, see `inputFormat`), map, or list; " +
+            "rows stream into the script before being rewritten in the `outputFormat`. `file://` sources are read through memory mappings, internal storage files through the storage stream; gzip compressed files are decompressed on the fly."
     )
     @PluginProperty(group = "main")
     private Property<String> from;
 
     @Schema(
         title = "Parallel transformations to execute",
-        description = "Number of concurrent workers; ordering is not preserved when set and execution defaults to sequential when null"
+        description = "Number of concurrent workers, each evaluating rows in its own context; ordering is not preserved when set unless `ordered` is true, and execution defaults to sequential when null"
     )
     private Property<@Min(2) Integer> concurrent;
 
-    @SuppressWarnings("unchecked")
+    @Schema(
+        title = "Keep the input order with concurrent workers",
+        description = "When true with `concurrent`, rows are still transformed in parallel but written in input order: at most `concurrent` rows are in flight " +
+            "and finished ones wait for the oldest one. Throughput is close to the unordered mode when row costs are even, and drops toward sequential " +
+            "speed when a few rows are much slower than the others, since they hold back the rows behind them."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> ordered = Property.ofValue(false);
+
+    @Schema(
+        title = "Evaluate the script once as a row function",
+        description = "When true, the script is wrapped into a function taking `row` (or `rows` with `batchSize`) as argument and returning it, evaluated once per context then called for each record. " +
+            "Return or assign `null`/`None`/`nil` to drop a record, or return an array to emit several rows. " +
+            "In Python the script is indented into the function body, in Ruby `row` is the lambda argument instead of a polyglot import."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> rowFunction = Property.ofValue(false);
+
+    @Schema(
+        title = "Number of rows handed to the script at once",
+        description = "When set, the script receives a `rows` list of up to this many records instead of a single `row`, and the rows left in `rows` afterwards " +
+            "(or returned by the function with `rowFunction`) are written. This amortizes the crossing between the task and the script over many records."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<@Min(1) Integer> batchSize;
+
+    @Schema(
+        title = "Hand batches to the script as columns",
+        description = "When true, each batch of `batchSize` rows (1000 by default) is pivoted into a `columns` map of column name to array instead of a `rows` list: " +
+            "integer columns are `long` arrays, numeric columns `double` arrays (integers mixed with decimals are converted), string columns `String` arrays and any other column an `Object` array. " +
+            "The script can update the arrays in place, or replace, add and remove columns with arrays of the same length; rows are rebuilt from `columns` afterwards, without their null values. " +
+            "With `rowFunction`, the function takes `columns` and returns the columns to write."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> columnar = Property.ofValue(false);
+
+    @Schema(
+        title = "Format of the source file",
+        description = "`ION`, `JSONL` with one JSON value per line, or `CSV` with a header line, whose values are read as strings: a line with more values than the header fails the task. " +
+            "Detected from the `from` file extension when not set (`.jsonl`/`.ndjson`, `.csv`, ION otherwise). Only used when `from` is a `kestra://` or `file://` URI."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<FileFormat> inputFormat;
+
+    @Schema(
+        title = "Format of the result file",
+        description = "`ION` (default), `JSONL` with one JSON object per line, or `CSV` whose header is the keys of the first row: later rows may lack some of its columns, left empty, but the task fails on a row with a column it doesn't have. Rows are serialized as they are transformed, in a single pass."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<FileFormat> outputFormat = Property.ofValue(FileFormat.ION);
+
+    @Schema(
+        title = "Compression of the result file",
+        description = "`NONE` (default) or `GZIP`, applied while rows are written, so that fewer bytes go through the working directory and the internal storage at the cost of some CPU. " +
+            "A `.gz` suffix is added to the file extension. Compressed sources are always detected from their content and decompressed while they are read, whatever this option."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Compression> compression = Property.ofValue(Compression.NONE);
+
+    @Schema(
+        title = "Upload the result while it is written",
+        description = "When true, the result is streamed into the internal storage as rows are transformed instead of being written to a temporary file in the working directory and uploaded afterwards, " +
+            "which saves a second pass over the whole output and the working directory space it takes. " +
+            "Whether the storage itself buffers the stream before sending it depends on the storage implementation."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> streamUpload = Property.ofValue(false);
+
     protected Output run(RunContext runContext, String languageId) throws Exception {
-        // temp out file
         String from = runContext.render(this.from).as(String.class).orElseThrow();
-        File tempFile = runContext.workingDir().createTempFile(".ion").toFile();
-        var source = generateSource(languageId, runContext);
-
-        try (var output = new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE)) {
-            if (from.startsWith("kestra://")) {
-                try (var inputStream = new BufferedInputStream(runContext.storage().getFile(URI.create(from)), FileSerde.BUFFER_SIZE)) {
-                    this.finalize(
-                            runContext,
-                            FileSerde.readAll(inputStream),
-                            source,
-                            output
-                    );
-                }
-            } else {
-                this.finalize(
-                        runContext,
-                        Flux.create(throwConsumer(emitter -> {
-                            Object o = JacksonMapper.toObject(from);
+        FileFormat outputFormat = runContext.render(this.outputFormat).as(FileFormat.class).orElse(FileFormat.ION);
+        Compression compression = runContext.render(this.compression).as(Compression.class).orElse(Compression.NONE);
+        String extension = outputFormat.extension() + compression.extension();
+        boolean batch = runContext.render(this.batchSize).as(Integer.class).isPresent();
+        boolean columnar = runContext.render(this.columnar).as(Boolean.class).orElse(false);
+        var source = runContext.render(this.rowFunction).as(Boolean.class).orElse(false) ?
+            generateSource(languageId, wrapFunction(renderScript(runContext), columnar ? "columns" : batch ? "rows" : "row"), runContext) :
+            generateSource(languageId, runContext);
 
-                            if (o instanceof List) {
-                                ((List<Object>) o).forEach(emitter::next);
-                            } else {
-                                emitter.next(o);
+        var timers = new PhaseTimers();
+        try (var profiler = profiler(runContext)) {
+            if (runContext.render(this.streamUpload).as(Boolean.class).orElse(false)) {
+                var upload = new StorageUpload(runContext, IdUtils.create() + extension);
+                OutputStream output = null;
+                boolean completed = false;
+                try {
+                    // closing the compressed stream finishes it, then completes the upload
+                    output = compression.compress(upload);
+                    this.transform(runContext, from, source, output, outputFormat, timers, profiler);
+                    // only the upload of what is left once the rows are written
+                    long start = timers.start();
+                    output.close();
+                    timers.stop(PhaseTimers.UPLOAD, start);
+                    completed = true;
+                } finally {
+                    // on an Error as well, or the upload thread would stay blocked waiting for the next chunk
+                    if (!completed) {
+                        upload.abort();
+                        // aborted first, so that closing the compressor only releases its native memory instead of completing a truncated file
+                        if (output != null) {
+                            try {
+                                output.close();
+                            } catch (IOException closed) {
+                                // the compressor can't write its trailer to the aborted upload
                             }
+                        }
+                    }
+                }
+
+                return Output
+                    .builder()
+                    .uri(upload.uri())
+                    .profile(profiler != null ? profiler.storeSamples(runContext) : null)
+                    .allocations(profiler != null ? profiler.storeAllocations(runContext) : null)
+                    .build();
+            }
+
+            // temp out file
+            File tempFile = runContext.workingDir().createTempFile(extension).toFile();
+            try (var output = compression.compress(new BufferedOutputStream(new FileOutputStream(tempFile), FileSerde.BUFFER_SIZE))) {
+                this.transform(runContext, from, source, output, outputFormat, timers, profiler);
+            }
+
+            long start = timers.start();
+            URI uri = runContext.storage().putFile(tempFile);
+            timers.stop(PhaseTimers.UPLOAD, start);
 
-                            emitter.complete();
-                        }), FluxSink.OverflowStrategy.BUFFER),
+            return Output
+                .builder()
+                .uri(uri)
+                .profile(profiler != null ? profiler.storeSamples(runContext) : null)
+                .allocations(profiler != null ? profiler.storeAllocations(runContext) : null)
+                .build();
+        } finally {
+            timers.report(runContext);
+        }
+    }
+
+    private void transform(RunContext runContext, String from, Source source, OutputStream output, FileFormat outputFormat, PhaseTimers timers, Profiler profiler) throws IOException, IllegalVariableEvaluationException, InterruptedException {
+        if (from.startsWith("kestra://") || from.startsWith(LocalPath.FILE_SCHEME + "://")) {
+            URI uri = URI.create(from);
+            FileFormat inputFormat = runContext.render(this.inputFormat).as(FileFormat.class).orElseGet(() -> FileFormat.of(uri));
+            try (var inputStream = Compression.decompress(open(runContext, uri))) {
+                this.finalize(
+                        runContext,
+                        inputFormat.read(inputStream),
                         source,
-                        output
+                        output,
+                        outputFormat,
+                        timers,
+                        profiler
                 );
             }
+        } else {
+            this.finalize(
+                    runContext,
+                    inlineRows(from),
+                    source,
+                    output,
+                    outputFormat,
+                    timers,
+                    profiler
+            );
+        }
+    }
+
+    /**
+     * Open the source file, memory-mapped when it is a {@code file://} local file, through a buffered stream otherwise.
+     * Internal storage files are always read through the storage stream, even on the local storage backend, which doesn't expose the file itself.
+     */
+    private static InputStream open(RunContext runContext, URI uri) throws IOException {
+        InputStream inputStream = LocalPath.FILE_SCHEME.equals(uri.getScheme()) ?
+            runContext.localPath().get(uri) :
+            runContext.storage().getFile(uri);
+
+        if (inputStream instanceof FileInputStream fileInputStream) {
+            return new MappedInputStream(fileInputStream.getChannel());
         }
 
-        return Output
-            .builder()
-            .uri(runContext.storage().putFile(tempFile))
-            .build();
+        return new BufferedInputStream(inputStream, FileSerde.BUFFER_SIZE);
+    }
+
+    /**
+     * Stream the rows of an inline JSON array (or a single JSON value) one at a time, as requested downstream,
+     * instead of materializing the whole document first.
+     */
+    private static Flux<Object> inlineRows(String from) throws IOException {
+        ObjectMapper mapper = JacksonMapper.ofJson();
+
+        return Flux.generate(
+            () -> new InlineRows(mapper.createParser(from)),
+            (state, sink) -> {
+                try {
+                    JsonToken token = state.parser.nextToken();
+                    if (!state.started) {
+                        state.started = true;
+                        state.array = token == JsonToken.START_ARRAY;
+                        if (state.array) {
+                            token = state.parser.nextToken();
+                        }
+                    } else if (!state.array) {
+                        // a single value has already been emitted
+                        token = null;
+                    }
+
+                    if (token == null || token == JsonToken.END_ARRAY) {
+                        sink.complete();
+                    } else {
+                        sink.next(mapper.readValue(state.parser, Object.class));
+                    }
+                } catch (IOException e) {
+                    sink.error(e);
+                }
+
+                return state;
+            },
+            throwConsumer(state -> state.parser.close())
+        );
+    }
+
+    private static class InlineRows {
+        private final JsonParser parser;
+        private boolean started;
+        private boolean array;
+
+        private InlineRows(JsonParser parser) {
+            this.parser = parser;
+        }
     }
 
     private void finalize(
         RunContext runContext,
         Flux<Object> flowable,
         Source scripts,
-        OutputStream output
+        OutputStream output,
+        FileFormat outputFormat,
+        PhaseTimers timers,
+        Profiler profiler
     ) throws IOException, IllegalVariableEvaluationException, InterruptedException {
-        Thread stdOut = null;
-        Thread stdErr = null;
-
-        try (var outStream = new PipedOutputStream();
-             var inStream = new PipedInputStream(outStream);
-             var errStream = new PipedOutputStream();
-             var inErrStream = new PipedInputStream(errStream);
-             var context = buildContext(runContext, outStream, errStream)) {
-            // watch for logs from output streams in separated threads
-            LogRunnable stdOutRunnable = new LogRunnable(inStream, false, runContext.logger());
-            LogRunnable stdErrRunnable = new LogRunnable(inErrStream, true, runContext.logger());
-            stdOut = Thread.ofVirtual().name("graalvm-log-out").start(stdOutRunnable);
-            stdErr = Thread.ofVirtual().name("graalvm-log-err").start(stdErrRunnable);
+        Integer concurrent = runContext.render(this.concurrent).as(Integer.class).orElse(null);
+        boolean rowFunction = runContext.render(this.rowFunction).as(Boolean.class).orElse(false);
+        boolean columnar = runContext.render(this.columnar).as(Boolean.class).orElse(false);
+        Integer batchSize = runContext.render(this.batchSize).as(Integer.class).orElse(columnar ? DEFAULT_COLUMNAR_BATCH_SIZE : null);
+        boolean ordered = runContext.render(this.ordered).as(Boolean.class).orElse(false);
+        // the row function is evaluated once for each context of the pool
+        Map<Context, Value> functions = rowFunction ? new ConcurrentHashMap<>() : null;
+        LongAdder rowsIn = new LongAdder();
+        LongAdder rowsDropped = new LongAdder();
+        long started = System.nanoTime();
 
+        // each parallel rail needs its own context, they all share the same engine;
+        // contexts are closed before the log pump, so their last output is still logged
+        try (var limiter = resourceLimiter(runContext);
+             var logs = logPump(runContext);
+             var pool = new ContextPool(concurrent != null ? concurrent : 1, () -> {
+                 long start = timers.start();
+                 var context = buildContext(runContext, logs, limiter, profiler);
+                 timers.stop(PhaseTimers.CONTEXT_CREATE, start);
+                 // constant bindings are installed once, only the row changes from one record to the next
+                 bind(runContext, context, scripts.getLanguage());
+                 return context;
+             })) {
+            Flux<Object> rows = flowable.doOnNext(row -> rowsIn.increment());
+            Flux<Object> items = batchSize != null ? rows.buffer(batchSize).cast(Object.class) : rows;
             Flux<Object> sequential;
 
-            if (this.concurrent != null) {
-                sequential = flowable
-                        .parallel(runContext.render(this.concurrent).as(Integer.class).orElseThrow())
+            if (concurrent != null && ordered) {
+                // results are buffered per item and emitted in input order, with at most `concurrent` items in flight
+                var convert = this.convert(pool, limiter, timers, rowsDropped, scripts, functions, batchSize != null, columnar);
+                sequential = items
+                        .flatMapSequential(
+                            item -> Flux.defer(() -> convert.apply(item)).subscribeOn(Schedulers.boundedElastic()),
+                            concurrent
+                        );
+            } else if (concurrent != null) {
+                sequential = items
+                        .parallel(concurrent)
                         .runOn(Schedulers.boundedElastic())
-                        .flatMap(this.convert(runContext, context, scripts))
+                        .flatMap(this.convert(pool, limiter, timers, rowsDropped, scripts, functions, batchSize != null, columnar))
                         .sequential();
             } else {
-                sequential = flowable
-                        .flatMap(this.convert(runContext, context, scripts));
+                sequential = items
+                        .flatMap(this.convert(pool, limiter, timers, rowsDropped, scripts, functions, batchSize != null, columnar));
             }
 
-            Mono<Long> count = FileSerde.writeAll(output, sequential);
+            Mono<Long> count = outputFormat.write(output, sequential);
 
             // metrics & finalize
-            Long lineCount = count.blockOptional().orElse(0L);
+            Long lineCount;
+            try {
+                lineCount = count.blockOptional().orElse(0L);
+            } catch (RuntimeException e) {
+                throw limiter.failure(e);
+            }
             runContext.metric(Counter.of("records", lineCount));
-        } finally  {
-            if (stdOut != null) {
-                stdOut.join();
+            runContext.metric(Counter.of("rows.in", rowsIn.sum()));
+            runContext.metric(Counter.of("rows.out", lineCount));
+            runContext.metric(Counter.of("rows.dropped", rowsDropped.sum()));
+
+            double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+            if (seconds > 0) {
+                runContext.metric(Gauge.of("rows.throughput", lineCount / seconds));
             }
-            if (stdErr != null) {
-                stdErr.join();
+        } finally {
+            ended();
+        }
+    }
+
+    private Function<Object, Publisher<Object>> convert(ContextPool pool, ResourceLimiter limiter, PhaseTimers timers, LongAdder rowsDropped, Source scripts, Map<Context, Value> functions, boolean batch, boolean columnar) throws InterruptedException {
+        return throwFunction(item -> {
+            Context context = pool.acquire();
+            limiter.enter(context);
+            try {
+                List<Object> rows = this.convert(context, timers, scripts, functions, item, batch, columnar);
+
+                // a batch only counts the rows missing from its result as dropped
+                int size = batch ? ((List<?>) item).size() : 1;
+                if (rows.size() < size) {
+                    rowsDropped.add(size - rows.size());
+                }
+
+                return Flux.fromIterable(rows);
+            } finally {
+                limiter.exit();
+                pool.release(context);
+            }
+        });
+    }
+
+    private List<Object> convert(Context context, PhaseTimers timers, Source scripts, Map<Context, Value> functions, Object item, boolean batch, boolean columnar) {
+        if (functions != null) {
+            long start = timers.start();
+            Value function = functions.get(context);
+            if (function == null) {
+                function = context.eval(scripts);
+                functions.put(context, function);
+                start = timers.stop(PhaseTimers.EVAL, start);
+            }
+
+            if (columnar) {
+                Map<String, Object> columns = ColumnBatch.pivot((List<?>) item);
+                start = timers.stop(PhaseTimers.CONVERT, start);
+                Value result = function.execute(columns);
+                start = timers.stop(PhaseTimers.EXECUTE, start);
+                try {
+                    return ColumnBatch.unpivot(context, result);
+                } finally {
+                    timers.stop(PhaseTimers.CONVERT, start);
+                }
+            }
+
+            Value result = function.execute(item);
+            start = timers.stop(PhaseTimers.EXECUTE, start);
+            try {
+                return this.rows(result);
+            } finally {
+                timers.stop(PhaseTimers.CONVERT, start);
             }
         }
+
+        if (columnar) {
+            return this.convertColumns(context, timers, scripts, item);
+        }
+
+        if (batch) {
+            return this.convertBatch(context, timers, scripts, item);
+        }
+
+        return this.convert(context, timers, scripts, item);
     }
 
-    private Function<Object, Publisher<Object>> convert(RunContext runContext, Context context, Source scripts) {
-        return throwFunction(row -> {
-            var bindings = getBindings(context, scripts.getLanguage());
-            // add all common vars to bindings in case of concurrency
-            runContext.getVariables().forEach((key, value) -> bindings.putMember(key, value));
-            bindings.putMember("runContext", new RunContextProxy(runContext));
-            bindings.putMember("logger", runContext.logger());
-            bindings.putMember("row", row);
+    // rows are copied to host objects before the context goes back to the pool, as another rail may use it right after
+    private List<Object> convert(Context context, PhaseTimers timers, Source scripts, Object row) {
+        var bindings = getBindings(context, scripts.getLanguage());
+        bindings.putMember("row", row);
+
+        long start = timers.start();
+        var result = context.eval(scripts);
+        start = timers.stop(PhaseTimers.EVAL, start);
 
-            var result = context.eval(scripts);
+        try {
             if (result.hasMember("rows")) {
-                return Flux.create(emitter -> {
-                    var array = result.getMember("rows");
-                    for (int i = 0; i < array.getArraySize(); i++) {
-                        emitter.next(array.getArrayElement(i));
-                    }
-                    emitter.complete();
-                });
+                return ValueConverter.toList(result.getMember("rows"));
             }
 
-            if (bindings.hasMember("row")) {
-                if (bindings.getMember("row").isNull()) {
-                    return Flux.empty();
-                } else {
-                    return Flux.just(bindings.getMember("row").as(Object.class));
-                }
+            if (bindings.hasMember("row") && !bindings.getMember("row").isNull()) {
+                return List.of(as(bindings.getMember("row")));
             }
 
-            return Flux.empty();
-        });
+            return List.of();
+        } finally {
+            timers.stop(PhaseTimers.CONVERT, start);
+        }
+    }
+
+    private List<Object> convertBatch(Context context, PhaseTimers timers, Source scripts, Object rows) {
+        var bindings = getBindings(context, scripts.getLanguage());
+        bindings.putMember("rows", rows);
+
+        long start = timers.start();
+        context.eval(scripts);
+        start = timers.stop(PhaseTimers.EVAL, start);
+
+        try {
+            return this.rows(bindings.getMember("rows"));
+        } finally {
+            timers.stop(PhaseTimers.CONVERT, start);
+        }
+    }
+
+    private List<Object> convertColumns(Context context, PhaseTimers timers, Source scripts, Object rows) {
+        var bindings = getBindings(context, scripts.getLanguage());
+        long start = timers.start();
+        bindings.putMember("columns", ColumnBatch.pivot((List<?>) rows));
+        start = timers.stop(PhaseTimers.CONVERT, start);
+
+        context.eval(scripts);
+        start = timers.stop(PhaseTimers.EVAL, start);
+
+        try {
+            return ColumnBatch.unpivot(context, bindings.getMember("columns"));
+        } finally {
+            timers.stop(PhaseTimers.CONVERT, start);
+        }
     }
 
+    // a null result drops the input, an array is a list of rows and anything else is a single row
+    private List<Object> rows(Value result) {
+        if (result == null || result.isNull()) {
+            return List.of();
+        }
+
+        if (result.hasArrayElements()) {
+            return ValueConverter.toList(result);
+        }
+
+        return List.of(as(result));
+    }
+
+    /**
+     * Wrap the rendered script into a language specific expression that evaluates to a function taking a single
+     * argument (`row`, or `rows` in batch mode) and returning the transformed row(s).
+     */
+    protected abstract String wrapFunction(String script, String argument);
+
     @Builder
     @Getter
     public static class Output implements io.kestra.core.models.tasks.Output {
         @Schema(
             title = "URI of a temporary result file",
-            description = "The file will be serialized as an ION file."
+            description = "The file is serialized in the `outputFormat`, ION by default."
         )
         private final URI uri;
+
+        @Schema(
+            title = "URI of the CPU profile of the script",
+            description = "Collapsed stacks of the guest code over all the rows, only set when `profile` is true."
+        )
+        private final URI profile;
+
+        @Schema(
+            title = "URI of the allocations traced in the script",
+            description = "Collapsed stacks of the guest code over all the rows ending with the allocated type, only set when `traceMemory` is true."
+        )
+        private final URI allocations;
     }
 }
@@ -1,10 +1,12 @@
 package io.kestra.plugin.graalvm;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.Task;
 import io.kestra.core.runners.RunContext;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -12,7 +14,10 @@ import org.graalvm.polyglot.*;
 import org.graalvm.polyglot.Value;
 import org.graalvm.polyglot.io.IOAccess;
 
-import java.io.OutputStream;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
 import io.kestra.core.models.annotations.PluginProperty;
 
 @SuperBuilder
@@ -29,9 +34,187 @@ abstract class AbstractScript extends Task {
     @PluginProperty(group = "main")
     protected Property<String> script;
 
-    protected Context buildContext(RunContext runContext, OutputStream out, OutputStream err) {
-        return contextBuilder(runContext)
-            .engine(getEngine())
+    @Schema(
+        title = "Maximum number of script log lines per second",
+        description = "Lines printed to stdout/stderr or logged by the language beyond this rate are dropped and counted in the `logs.dropped` metric."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Integer> logLinesPerSecond;
+
+    @Schema(
+        title = "Number of script log lines logged before sampling",
+        description = "Once this many lines have been printed, only one line out of `logSampleRate` is logged, the others are counted in the `logs.dropped` metric."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(0) Integer> logSampleAfter;
+
+    @Schema(
+        title = "Sampling rate of script log lines",
+        description = "Only used with `logSampleAfter`: one line out of this many is logged."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Integer> logSampleRate = Property.ofValue(100);
+
+    @Schema(
+        title = "Maximum number of script log lines",
+        description = "Lines beyond this total are dropped and counted in the `logs.dropped` metric."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(0) Long> logMaxLines;
+
+    @Schema(
+        title = "Maximum number of statements executed by the script",
+        description = "Counted per context: for a FileTransform, over all the rows handled by the same context. " +
+            "The script is stopped once it is reached and the task fails; contexts are not taken from the `pooled` pool when set."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Long> maxStatements;
+
+    @Schema(
+        title = "Maximum CPU time spent running the script",
+        description = "Shared by all the contexts of the task run. The script is cancelled once it is exceeded and the task fails."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Duration> maxCpuTime;
+
+    @Schema(
+        title = "Maximum number of bytes allocated while running the script",
+        description = "Shared by all the contexts of the task run, and counting every allocation of the threads running the script (including the conversion of its results), " +
+            "not the memory retained at a given time. The script is cancelled once it is exceeded and the task fails."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<@Min(1) Long> maxAllocatedBytes;
+
+    @Schema(
+        title = "Profile the CPU time spent by the script",
+        description = "When true, the guest code is sampled while the script runs and the samples are stored as collapsed stacks (`frame;frame;frame count` lines), " +
+            "to be turned into a flame graph with tools like `flamegraph.pl` or speedscope; the file is the `profile` output of the task. " +
+            "The script runs on an engine of its own, so its code is parsed again and not shared with the other runs, and contexts are not taken from the `pooled` pool: only enable it to look for the hot spots of a script."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> profile = Property.ofValue(false);
+
+    @Schema(
+        title = "Trace the memory used by the script",
+        description = "When true, the run reports the bytes allocated by the threads running the script in the `memory.allocated.bytes` metric " +
+            "and the peak heap used by the worker while it runs in the `memory.heap.peak` metric, sampled every few milliseconds and shared with the other tasks of the worker. " +
+            "The allocations reported by the language are also traced per source location, counted in the `memory.allocations` metric and stored as collapsed stacks ending with the allocated type " +
+            "in the `allocations` output: JavaScript and Ruby report part of their allocations, Python none. " +
+            "Every traced allocation is kept until the end of the run, and the script runs on an engine of its own like with `profile`: only enable it to look for the memory hungry parts of a script."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Boolean> traceMemory = Property.ofValue(false);
+
+    // the limiter of the running script, cancelling it when the task is killed
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient AtomicReference<ResourceLimiter> runningLimiter = new AtomicReference<>();
+
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final transient AtomicBoolean killed = new AtomicBoolean();
+
+    /**
+     * Build a context for a task run, on the engine of the profiler when the run is profiled or its memory traced.
+     */
+    protected Context buildContext(RunContext runContext, LogPump logs, ResourceLimiter limiter, Profiler profiler) {
+        Context.Builder builder = limiter.apply(sandboxed(runContext, contextBuilder(runContext), new SLF4JJULHandler(runContext.logger(), logs.throttle())));
+        if (profiler != null) {
+            builder.engine(profiler.engine());
+        }
+
+        return builder
+            .currentWorkingDirectory(runContext.workingDir().path())
+            .out(logs.out())
+            .err(logs.err())
+            .build();
+    }
+
+    /**
+     * Create the sink of the guest output of a task run, throttled by the log limits of the task.
+     */
+    protected LogPump logPump(RunContext runContext) throws IllegalVariableEvaluationException {
+        Integer linesPerSecond = runContext.render(this.logLinesPerSecond).as(Integer.class).orElse(null);
+        Integer sampleAfter = runContext.render(this.logSampleAfter).as(Integer.class).orElse(null);
+        Long maxLines = runContext.render(this.logMaxLines).as(Long.class).orElse(null);
+
+        LogThrottle throttle = linesPerSecond == null && sampleAfter == null && maxLines == null ?
+            LogThrottle.UNLIMITED :
+            new LogThrottle(linesPerSecond, sampleAfter, runContext.render(this.logSampleRate).as(Integer.class).orElse(100), maxLines);
+
+        return new LogPump(runContext, throttle);
+    }
+
+    /**
+     * Create the enforcer of the resource limits and the timeout of a task run, also cancelling the script when the task is killed
+     * and measuring its memory use when traced.
+     */
+    protected ResourceLimiter resourceLimiter(RunContext runContext) throws IllegalVariableEvaluationException {
+        ResourceLimiter limiter = new ResourceLimiter(
+            runContext,
+            runContext.render(this.maxStatements).as(Long.class).orElse(null),
+            runContext.render(this.maxCpuTime).as(Duration.class).orElse(null),
+            runContext.render(this.maxAllocatedBytes).as(Long.class).orElse(null),
+            runContext.render(this.getTimeout()).as(Duration.class).orElse(null),
+            runContext.render(this.traceMemory).as(Boolean.class).orElse(false)
+        );
+
+        this.runningLimiter.set(limiter);
+        // killed before the script started
+        if (killed.get()) {
+            limiter.kill();
+        }
+        return limiter;
+    }
+
+    /**
+     * Called by the worker when the task is killed or times out, implementing {@code WorkerJobLifecycle.kill()} for the runnable tasks.
+     */
+    public void kill() {
+        killed.set(true);
+        ResourceLimiter limiter = this.runningLimiter.get();
+        if (limiter != null) {
+            limiter.kill();
+        }
+    }
+
+    /**
+     * Forget the limiter and the kill of a task run once it ended, so that a later kill can't reach a closed limiter.
+     */
+    protected void ended() {
+        runningLimiter.set(null);
+        killed.set(false);
+    }
+
+    /**
+     * Create the CPU sampler and allocation tracer of a task run, or return null when the run is neither profiled nor its memory traced.
+     */
+    protected Profiler profiler(RunContext runContext) throws IllegalVariableEvaluationException {
+        boolean cpu = runContext.render(this.profile).as(Boolean.class).orElse(false);
+        boolean memory = runContext.render(this.traceMemory).as(Boolean.class).orElse(false);
+
+        return cpu || memory ? new Profiler(cpu, memory) : null;
+    }
+
+    /**
+     * Apply the engine, host access restrictions and log handler shared by every context this plugin creates.
+     */
+    Context.Builder sandboxed(RunContext runContext, Context.Builder builder, SLF4JJULHandler logHandler) {
+        return sandbox(builder, logHandler)
+            .engine(getEngine(runContext));
+    }
+
+    /**
+     * Apply the host access restrictions and log handler of the contexts of this plugin, without the engine:
+     * the contexts warming up the shared engine get the same options as the task contexts.
+     */
+    static Context.Builder sandbox(Context.Builder builder, SLF4JJULHandler logHandler) {
+        return builder
             // allow I/O
             .allowIO(IOAccess.ALL)
             // allow host access with a curated default
@@ -77,36 +260,55 @@ abstract class AbstractScript extends Task {
                 return name.startsWith("java.") || name.startsWith("io.kestra.core.models");
             })
             // log to the run context logger
-            .logHandler(new SLF4JJULHandler(runContext.logger()))
+            .logHandler(logHandler)
             // needed for Ruby
             .allowPolyglotAccess(PolyglotAccess.ALL)
             // needed for Ruby
-            .allowCreateThread(true)
-            .currentWorkingDirectory(runContext.workingDir().path())
-            .out(out)
-            .err(err)
-            .build();
+            .allowCreateThread(true);
     }
 
     protected Value getBindings(Context context, String languageId) {
         return context.getBindings(languageId);
     }
 
+    /**
+     * Install the bindings that stay the same for the whole task run: flow variables, `runContext`, `logger` and `storage`.
+     */
+    protected void bind(RunContext runContext, Context context, String languageId) {
+        var bindings = getBindings(context, languageId);
+        runContext.getVariables().forEach(bindings::putMember);
+        bindings.putMember("runContext", new RunContextProxy(runContext));
+        bindings.putMember("logger", runContext.logger());
+        bindings.putMember("storage", new GuestStorage(runContext));
+    }
+
     protected Context.Builder contextBuilder(RunContext runContext) {
         return Context.newBuilder();
     }
 
-    // initialization-on-demand holder idiom
-    private static class EngineHolder {
-        static final Engine INSTANCE = Engine.create();
+    private Engine getEngine(RunContext runContext) {
+        return EngineHolder.get(runContext);
     }
 
-    private Engine getEngine() {
-        return EngineHolder.INSTANCE;
+    protected String renderScript(RunContext runContext) throws IllegalVariableEvaluationException {
+        return runContext.render(this.script).as(String.class).orElseThrow();
     }
 
     protected Source generateSource(String languageId, RunContext runContext) throws IllegalVariableEvaluationException {
-        var rendered = runContext.render(this.script).as(String.class).orElseThrow();
-        return Source.create(languageId, rendered);
+        return generateSource(languageId, renderScript(runContext), runContext);
+    }
+
+    protected Source generateSource(String languageId, String code, RunContext runContext) {
+        var lookup = SourceCache.INSTANCE.get(languageId, code);
+        runContext.metric(Counter.of(lookup.hit() ? "source.cache.hits" : "source.cache.misses", 1));
+
+        return lookup.source();
+    }
+
+    /**
+     * Copy a guest value into plain host objects, so it stays usable once the context is closed or used by another thread.
+     */
+    protected Object as(Value member) {
+        return ValueConverter.toHost(member);
     }
 }
@@ -0,0 +1,178 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * Pivot a batch of rows into one array per column, and back.
+ * Columns only holding integers are {@code long[]}, only numbers {@code double[]}, only strings {@code String[]},
+ * anything else (including missing or null values in a numeric column) {@code Object[]}, so that numeric loops in the
+ * script run over primitive host arrays instead of boxed row maps.
+ */
+final class ColumnBatch {
+    private ColumnBatch() {
+    }
+
+    static Map<String, Object> pivot(List<?> rows) {
+        int size = rows.size();
+        Set<String> names = new LinkedHashSet<>();
+        for (Object row : rows) {
+            names.addAll(row(row).keySet());
+        }
+
+        Map<String, Object> columns = LinkedHashMap.newLinkedHashMap(names.size());
+        for (String name : names) {
+            Object[] values = new Object[size];
+            for (int i = 0; i < size; i++) {
+                values[i] = row(rows.get(i)).get(name);
+            }
+            columns.put(name, typed(values));
+        }
+
+        return columns;
+    }
+
+    /**
+     * Build the rows back from the `columns` left by the script: the batch columns, possibly modified in place,
+     * replaced or added as guest arrays. All columns must have the same length, null values are not written.
+     */
+    static List<Object> unpivot(Context context, Value columns) {
+        if (columns == null || columns.isNull()) {
+            return List.of();
+        }
+
+        Map<String, IntFunction<Object>> readers = new LinkedHashMap<>();
+        int size = -1;
+
+        Map<String, Value> values = columns(context, columns);
+        for (Map.Entry<String, Value> entry : values.entrySet()) {
+            Value column = entry.getValue();
+            int length;
+            IntFunction<Object> reader;
+
+            if (column.isHostObject()) {
+                switch (column.asHostObject()) {
+                    case long[] array -> {
+                        length = array.length;
+                        reader = i -> array[i];
+                    }
+                    case double[] array -> {
+                        length = array.length;
+                        reader = i -> array[i];
+                    }
+                    // the script may have assigned guest values into them, still tied to the context
+                    case Object[] array -> {
+                        length = array.length;
+                        reader = i -> ValueConverter.copy(array[i]);
+                    }
+                    case List<?> list -> {
+                        length = list.size();
+                        reader = i -> ValueConverter.copy(list.get(i));
+                    }
+                    default -> throw new IllegalArgumentException("Column '" + entry.getKey() + "' is not an array");
+                }
+            } else if (column.hasArrayElements()) {
+                List<Object> list = ValueConverter.toList(column);
+                length = list.size();
+                reader = list::get;
+            } else {
+                throw new IllegalArgumentException("Column '" + entry.getKey() + "' is not an array");
+            }
+
+            if (size >= 0 && length != size) {
+                throw new IllegalArgumentException("All columns must have the same length, column '" + entry.getKey() + "' has " + length + " values instead of " + size);
+            }
+            size = length;
+            readers.put(entry.getKey(), reader);
+        }
+
+        List<Object> rows = new ArrayList<>(Math.max(size, 0));
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = LinkedHashMap.newLinkedHashMap(readers.size());
+            for (Map.Entry<String, IntFunction<Object>> reader : readers.entrySet()) {
+                Object value = reader.getValue().apply(i);
+                if (value != null) {
+                    row.put(reader.getKey(), value);
+                }
+            }
+            rows.add(row);
+        }
+
+        return rows;
+    }
+
+    private static Map<String, Value> columns(Context context, Value columns) {
+        Map<String, Value> values = new LinkedHashMap<>();
+
+        if (columns.isHostObject() && columns.asHostObject() instanceof Map<?, ?> map) {
+            map.forEach((key, value) -> values.put(String.valueOf(key), context.asValue(value)));
+        } else if (columns.hasHashEntries()) {
+            Value iterator = columns.getHashEntriesIterator();
+            while (iterator.hasIteratorNextElement()) {
+                Value entry = iterator.getIteratorNextElement();
+                Value key = entry.getArrayElement(0);
+                values.put(key.isString() ? key.asString() : key.toString(), entry.getArrayElement(1));
+            }
+        } else if (columns.hasMembers()) {
+            columns.getMemberKeys().forEach(key -> values.put(key, columns.getMember(key)));
+        } else {
+            throw new IllegalArgumentException("`columns` must be a map of column name to array");
+        }
+
+        return values;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> row(Object row) {
+        if (row instanceof Map<?, ?> map) {
+            return (Map<String, Object>) map;
+        }
+
+        throw new IllegalArgumentException("Columnar batches need rows that are objects, got " + (row == null ? "null" : row.getClass().getSimpleName()));
+    }
+
+    private static Object typed(Object[] values) {
+        boolean integers = true;
+        boolean numbers = true;
+        boolean strings = true;
+
+        for (Object value : values) {
+            integers &= value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+            numbers &= value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof Double || value instanceof Float;
+            strings &= value == null || value instanceof String;
+        }
+
+        if (integers) {
+            long[] column = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                column[i] = ((Number) values[i]).longValue();
+            }
+            return column;
+        }
+
+        if (numbers) {
+            double[] column = new double[values.length];
+            for (int i = 0; i < values.length; i++) {
+                column[i] = ((Number) values[i]).doubleValue();
+            }
+            return column;
+        }
+
+        if (strings) {
+            String[] column = new String[values.length];
+            System.arraycopy(values, 0, column, 0, values.length);
+            return column;
+        }
+
+        return values;
+    }
+}
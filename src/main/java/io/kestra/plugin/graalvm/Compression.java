@@ -0,0 +1,58 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.serializers.FileSerde;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compression of the files written by a FileTransform.
+ */
+public enum Compression {
+    NONE(""),
+    GZIP(".gz");
+
+    private static final int GZIP_MAGIC_LENGTH = 2;
+
+    private final String extension;
+
+    Compression(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Suffix appended to the extension of the file format.
+     */
+    String extension() {
+        return extension;
+    }
+
+    /**
+     * Compress what is written to the returned stream into the output, closing it finishes the compression and closes the output.
+     */
+    OutputStream compress(OutputStream output) throws IOException {
+        return switch (this) {
+            case NONE -> output;
+            case GZIP -> new GZIPOutputStream(output, FileSerde.BUFFER_SIZE);
+        };
+    }
+
+    /**
+     * Decompress the input when it starts with the gzip magic bytes, whatever the file name, and return it unchanged otherwise.
+     */
+    static InputStream decompress(InputStream input) throws IOException {
+        PushbackInputStream pushback = new PushbackInputStream(input, GZIP_MAGIC_LENGTH);
+        byte[] magic = pushback.readNBytes(GZIP_MAGIC_LENGTH);
+        pushback.unread(magic);
+
+        boolean gzip = magic.length == GZIP_MAGIC_LENGTH
+            && (magic[0] & 0xFF) == (GZIPInputStream.GZIP_MAGIC & 0xFF)
+            && (magic[1] & 0xFF) == (GZIPInputStream.GZIP_MAGIC >> 8);
+
+        return gzip ? new GZIPInputStream(pushback, FileSerde.BUFFER_SIZE) : pushback;
+    }
+}
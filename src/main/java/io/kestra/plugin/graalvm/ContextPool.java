@@ -0,0 +1,65 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Bounded pool of polyglot contexts, all created by the same factory (and so sharing the same engine).
+ * A context is only ever used by the thread that acquired it, which lets languages that forbid
+ * multi-threaded access (JavaScript) run on several threads at once, each with its own context.
+ */
+class ContextPool implements AutoCloseable {
+    private final Supplier<Context> factory;
+    private final int size;
+    private final BlockingQueue<Context> idle;
+    private final List<Context> created;
+
+    ContextPool(int size, Supplier<Context> factory) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Context pool size must be at least 1, got " + size);
+        }
+
+        this.factory = factory;
+        this.size = size;
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.created = new ArrayList<>(size);
+    }
+
+    /**
+     * Take an idle context, lazily creating one while the pool is not full, or wait for one to be released.
+     */
+    Context acquire() throws InterruptedException {
+        Context context = idle.poll();
+        if (context != null) {
+            return context;
+        }
+
+        synchronized (created) {
+            if (created.size() < size) {
+                context = factory.get();
+                created.add(context);
+                return context;
+            }
+        }
+
+        return idle.take();
+    }
+
+    void release(Context context) {
+        idle.offer(context);
+    }
+
+    @Override
+    public void close() {
+        synchronized (created) {
+            created.forEach(ResourceLimiter::close);
+            created.clear();
+        }
+        idle.clear();
+    }
+}
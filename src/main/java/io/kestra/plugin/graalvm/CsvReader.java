@@ -0,0 +1,149 @@
+package io.kestra.plugin.graalvm;
+
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 CSV reader: the first record is the header, each following record is emitted as a row mapping the
+ * header names to the string values, one record at a time as requested downstream.
+ * Quoted values may contain separators, quotes and line breaks; an empty unquoted value is read as {@code null}.
+ * A record with fewer values than the header has the missing ones set to {@code null}, one with more values fails the read,
+ * as they would be lost.
+ */
+class CsvReader {
+    private final Reader reader;
+    private final StringBuilder value = new StringBuilder();
+    private List<String> header;
+    private int next = -2;
+    // line of the input the last read record started on
+    private long line = 1;
+    private long recordLine;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    Flux<Object> readAll() {
+        return Flux.generate(sink -> {
+            try {
+                if (header == null) {
+                    header = record();
+                    if (header == null) {
+                        sink.complete();
+                        return;
+                    }
+                }
+
+                List<String> values = record();
+                // skip blank lines
+                while (values != null && values.size() == 1 && values.getFirst() == null) {
+                    values = record();
+                }
+
+                if (values == null) {
+                    sink.complete();
+                } else {
+                    sink.next(row(values));
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    private Map<String, Object> row(List<String> values) throws IOException {
+        if (values.size() > header.size()) {
+            throw new IOException("Line " + recordLine + " has " + values.size() + " values, more than the " + header.size() +
+                " columns of the CSV header " + header);
+        }
+
+        Map<String, Object> row = LinkedHashMap.newLinkedHashMap(header.size());
+        for (int i = 0; i < header.size(); i++) {
+            row.put(header.get(i), i < values.size() ? values.get(i) : null);
+        }
+        return row;
+    }
+
+    /**
+     * Read the values of the next record, or {@code null} at the end of the input.
+     */
+    private List<String> record() throws IOException {
+        recordLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+
+        List<String> values = new ArrayList<>();
+        while (true) {
+            value.setLength(0);
+            boolean quoted = false;
+
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c == -1) {
+                        throw new IOException("Unterminated quoted CSV value");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    value.append((char) c);
+                }
+            } else {
+                while (c != ',' && c != '\n' && c != '\r' && c != -1) {
+                    value.append((char) c);
+                    c = read();
+                }
+            }
+
+            values.add(quoted || !value.isEmpty() ? value.toString() : null);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+
+            if (c == '\r') {
+                c = read();
+                if (c != '\n') {
+                    // a lone carriage return ends the record too
+                    unread(c);
+                    line++;
+                }
+            } else if (c != '\n' && c != -1) {
+                throw new IOException("Unexpected character '" + (char) c + "' after a quoted CSV value");
+            }
+
+            return values;
+        }
+    }
+
+    private int read() throws IOException {
+        if (next != -2) {
+            int c = next;
+            next = -2;
+            return c;
+        }
+
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    private void unread(int c) {
+        next = c;
+    }
+}
@@ -0,0 +1,112 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.serializers.JacksonMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
+/**
+ * Streaming RFC 4180 CSV writer: the header is the keys of the first row, and the following rows are written in
+ * the same column order, with missing keys left empty. A row with a key absent from the first row fails the write,
+ * as its value would be lost.
+ * Nested maps, lists and arrays are written as JSON, and binary values in base64 like in JSON.
+ */
+class CsvWriter {
+    private final Writer writer;
+    private List<String> header;
+    private Set<String> columns;
+    private long count;
+
+    CsvWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    Mono<Long> writeAll(Flux<Object> rows) throws IOException {
+        return rows
+            .doOnNext(throwConsumer(this::write))
+            .count();
+    }
+
+    private void write(Object row) throws IOException {
+        if (!(row instanceof Map<?, ?> map)) {
+            throw new IllegalArgumentException("CSV rows must be objects, got " + (row == null ? "null" : row.getClass().getSimpleName()));
+        }
+
+        count++;
+        if (header == null) {
+            header = new ArrayList<>(map.size());
+            map.keySet().forEach(key -> header.add(String.valueOf(key)));
+            columns = new HashSet<>(header);
+            writeLine(header);
+        } else {
+            for (Object key : map.keySet()) {
+                if (!columns.contains(String.valueOf(key))) {
+                    throw new IllegalArgumentException("Row " + count + " has a column '" + key + "' missing from the CSV header " + header +
+                        ", taken from the first row: all the CSV rows must have the columns of the first one, or a subset of them");
+                }
+            }
+        }
+
+        List<Object> values = new ArrayList<>(header.size());
+        for (String column : header) {
+            values.add(map.get(column));
+        }
+        writeLine(values);
+    }
+
+    private void writeLine(Collection<?> values) throws IOException {
+        boolean first = true;
+        for (Object value : values) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writeValue(value);
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+
+        String text;
+        if (value instanceof byte[] bytes) {
+            text = Base64.getEncoder().encodeToString(bytes);
+        } else if (value instanceof Map<?, ?> || value instanceof Collection<?> || value.getClass().isArray()) {
+            text = JacksonMapper.ofJson().writeValueAsString(value);
+        } else {
+            text = value.toString();
+        }
+
+        if (needsQuotes(text)) {
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        } else {
+            writer.write(text);
+        }
+    }
+
+    private static boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,83 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.runners.RunContext;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Engine;
+import org.graalvm.polyglot.PolyglotException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Holder of the engine shared by every context of the plugin, lazily created on first use from the worker
+ * plugin configuration:
+ * <ul>
+ *     <li>{@code engineWarmup}: map of language id to scripts evaluated once on the new engine, so that their parsed
+ *     code is already cached when the next tasks run them. They are evaluated in the background, the first tasks don't wait for them.</li>
+ * </ul>
+ */
+final class EngineHolder {
+    static final String WARMUP = "engineWarmup";
+    // the warmup outlives the task creating the engine, it can't log to its logger
+    private static final Logger LOGGER = LoggerFactory.getLogger(EngineHolder.class);
+
+    private static volatile Engine instance;
+
+    private EngineHolder() {
+    }
+
+    static Engine get(RunContext runContext) {
+        Engine engine = instance;
+        if (engine == null) {
+            Map<String, List<String>> scripts;
+            synchronized (EngineHolder.class) {
+                engine = instance;
+                if (engine != null) {
+                    return engine;
+                }
+
+                engine = Engine.newBuilder().build();
+                instance = engine;
+                scripts = runContext.<Map<String, List<String>>>pluginConfiguration(WARMUP).orElse(Map.of());
+            }
+
+            // out of the lock, so that the tasks of every language can use the engine while it is warmed up
+            if (!scripts.isEmpty()) {
+                Engine warmed = engine;
+                Thread.ofVirtual().name("graalvm-engine-warmup").start(() -> warmup(warmed, scripts, LOGGER));
+            }
+        }
+
+        return engine;
+    }
+
+    /**
+     * Evaluate the warmup scripts on the engine, in contexts with the options of the task contexts so that the code they load is
+     * shared with them. Returns the number of scripts evaluated successfully, failures are logged.
+     */
+    static int warmup(Engine engine, Map<String, List<String>> scripts, Logger logger) {
+        int warmed = 0;
+
+        for (Map.Entry<String, List<String>> entry : scripts.entrySet()) {
+            String languageId = entry.getKey();
+            try (Context context = AbstractScript.sandbox(Context.newBuilder(), new SLF4JJULHandler(logger, LogThrottle.UNLIMITED)).engine(engine).build()) {
+                for (String script : entry.getValue()) {
+                    try {
+                        // through the source cache, so that a task running the same script reuses the warm code
+                        context.eval(SourceCache.INSTANCE.get(languageId, script).source());
+                        warmed++;
+                    } catch (PolyglotException e) {
+                        logger.warn("Unable to warm up the GraalVM engine with a {} script: {}", languageId, e.getMessage());
+                    }
+                }
+            }
+        }
+
+        if (!scripts.isEmpty()) {
+            logger.info("Warmed up the GraalVM engine with {} script(s)", warmed);
+        }
+        return warmed;
+    }
+}
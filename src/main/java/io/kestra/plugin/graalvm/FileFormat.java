@@ -0,0 +1,133 @@
+package io.kestra.plugin.graalvm;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.kestra.core.serializers.FileSerde;
+import io.kestra.core.serializers.JacksonMapper;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
+/**
+ * Format of the files read and written by a FileTransform.
+ */
+public enum FileFormat {
+    ION(".ion"),
+    JSONL(".jsonl"),
+    CSV(".csv");
+
+    private final String extension;
+
+    FileFormat(String extension) {
+        this.extension = extension;
+    }
+
+    String extension() {
+        return extension;
+    }
+
+    /**
+     * Guess the format of a file from its extension, ION when unknown. A compression extension is ignored.
+     */
+    static FileFormat of(URI uri) {
+        String path = uri.getPath() == null ? "" : uri.getPath().toLowerCase(Locale.ROOT);
+        if (path.endsWith(Compression.GZIP.extension())) {
+            path = path.substring(0, path.length() - Compression.GZIP.extension().length());
+        }
+        if (path.endsWith(".jsonl") || path.endsWith(".ndjson")) {
+            return JSONL;
+        }
+        if (path.endsWith(".csv")) {
+            return CSV;
+        }
+        return ION;
+    }
+
+    /**
+     * Stream the rows of the input, one at a time as requested downstream.
+     */
+    Flux<Object> read(InputStream input) throws IOException {
+        return switch (this) {
+            case ION -> FileSerde.readAll(input);
+            case JSONL -> jsonLines(reader(input));
+            case CSV -> new CsvReader(reader(input)).readAll();
+        };
+    }
+
+    private static BufferedReader reader(InputStream input) {
+        return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE);
+    }
+
+    private static Flux<Object> jsonLines(BufferedReader reader) {
+        ObjectMapper mapper = JacksonMapper.ofJson();
+
+        return Flux.generate(sink -> {
+            try {
+                String line = reader.readLine();
+                // skip blank lines
+                while (line != null && line.isBlank()) {
+                    line = reader.readLine();
+                }
+
+                if (line == null) {
+                    sink.complete();
+                } else {
+                    sink.next(mapper.readValue(line, Object.class));
+                }
+            } catch (IOException e) {
+                sink.error(e);
+            }
+        });
+    }
+
+    /**
+     * Serialize the rows to the output as they are emitted, the returned count completes once all of them are written.
+     * The output is flushed but not closed.
+     */
+    Mono<Long> write(OutputStream output, Flux<Object> rows) throws IOException {
+        if (this == ION) {
+            return FileSerde.writeAll(output, rows);
+        }
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE);
+        Mono<Long> count = switch (this) {
+            case JSONL -> jsonLines(writer, rows);
+            case CSV -> new CsvWriter(writer).writeAll(rows);
+            default -> throw new IllegalStateException("Unexpected format " + this);
+        };
+
+        return count.doOnSuccess(throwConsumer(ignored -> writer.flush()));
+    }
+
+    private static Mono<Long> jsonLines(Writer writer, Flux<Object> rows) throws IOException {
+        ObjectMapper mapper = JacksonMapper.ofJson();
+        // flushing each row would bypass the buffered writer, the rows are flushed once all written
+        ObjectWriter rowWriter = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        JsonGenerator generator = mapper.getFactory().createGenerator(writer)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+            .setRootValueSeparator(null);
+
+        return rows
+            .doOnNext(throwConsumer(row -> {
+                rowWriter.writeValue(generator, row);
+                generator.writeRaw('\n');
+            }))
+            .count()
+            .doOnSuccess(throwConsumer(ignored -> generator.flush()));
+    }
+}
@@ -0,0 +1,122 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.utils.IdUtils;
+import org.graalvm.polyglot.Value;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Bound as `storage` in the scripts, to write binary data produced by the script straight to the internal storage.
+ * Guest buffers (JavaScript `ArrayBuffer` and typed arrays, Python `bytes`/`bytearray`) are streamed from the guest
+ * memory into the storage without an intermediate copy of the whole content.
+ */
+public class GuestStorage {
+    private final RunContext runContext;
+
+    GuestStorage(RunContext runContext) {
+        this.runContext = runContext;
+    }
+
+    /**
+     * Store the data in a file with a generated name, and return its `kestra://` URI.
+     */
+    public URI put(Value data) throws IOException {
+        return put(data, IdUtils.create());
+    }
+
+    /**
+     * Store the data in a file with the given name, and return its `kestra://` URI.
+     * Accepts a buffer, a typed array, a Java `byte[]`, a list of bytes or a string written as UTF-8.
+     */
+    public URI put(Value data, String name) throws IOException {
+        try (InputStream inputStream = inputStream(data)) {
+            return runContext.storage().putFile(inputStream, name);
+        }
+    }
+
+    private static InputStream inputStream(Value data) {
+        if (data == null || data.isNull()) {
+            throw new IllegalArgumentException("Cannot store a null value");
+        }
+
+        if (data.hasBufferElements()) {
+            return new BufferInputStream(data, 0, data.getBufferSize());
+        }
+
+        // a JavaScript typed array is a view on a part of its ArrayBuffer
+        if (data.hasArrayElements() && data.hasMember("buffer") && data.hasMember("byteOffset") && data.hasMember("byteLength")) {
+            Value buffer = data.getMember("buffer");
+            if (buffer.hasBufferElements()) {
+                return new BufferInputStream(buffer, data.getMember("byteOffset").asLong(), data.getMember("byteLength").asLong());
+            }
+        }
+
+        if (data.isHostObject() && data.asHostObject() instanceof byte[] bytes) {
+            return new ByteArrayInputStream(bytes);
+        }
+
+        if (data.isString()) {
+            return new ByteArrayInputStream(data.asString().getBytes(StandardCharsets.UTF_8));
+        }
+
+        if (data.hasArrayElements()) {
+            byte[] bytes = new byte[Math.toIntExact(data.getArraySize())];
+            for (int i = 0; i < bytes.length; i++) {
+                // unsigned values (0-255) are accepted as well as signed bytes
+                bytes[i] = (byte) data.getArrayElement(i).asInt();
+            }
+            return new ByteArrayInputStream(bytes);
+        }
+
+        throw new IllegalArgumentException("Cannot store a value of type " + data.getMetaObject() + ", expected a buffer, an array of bytes or a string");
+    }
+
+    /**
+     * Read a range of a guest buffer directly into the reader's array.
+     * Must be read on the thread running the script, as the guest value belongs to its context.
+     */
+    private static class BufferInputStream extends InputStream {
+        private final Value buffer;
+        private final long end;
+        private long position;
+
+        BufferInputStream(Value buffer, long offset, long length) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.end = offset + length;
+        }
+
+        @Override
+        public int read() {
+            if (position >= end) {
+                return -1;
+            }
+            return buffer.readBufferByte(position++) & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+
+            int count = (int) Math.min(len, end - position);
+            ValueConverter.readBuffer(buffer, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, end - position);
+        }
+    }
+}
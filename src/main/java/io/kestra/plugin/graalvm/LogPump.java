@@ -0,0 +1,234 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.runners.RunContext;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Send the guest stdout and stderr to the task logger.
+ * Lines are split on the writing thread and queued into a bounded buffer that a single virtual thread drains in batches,
+ * so the evaluating thread never waits on a pipe reader; it only waits when the buffer is full, until the logger catches up.
+ * Lines refused by the {@link LogThrottle} are dropped before being decoded and counted in the {@code logs.dropped} metric.
+ * A line longer than {@link #MAX_LINE_LENGTH} bytes is logged in several parts, so that output without line breaks can't grow the buffer unbounded.
+ */
+class LogPump implements AutoCloseable {
+    private static final int CAPACITY = 8192;
+    private static final int BATCH_SIZE = 512;
+    private static final int MAX_LINE_LENGTH = 64 * 1024;
+    private static final int MAX_RETAINED_BUFFER = 8 * 1024;
+    private static final Line END = new Line(false, null);
+
+    private final RunContext runContext;
+    private final Logger logger;
+    private final LogThrottle throttle;
+    private final BlockingQueue<Line> lines = new ArrayBlockingQueue<>(CAPACITY);
+    private final LineOutputStream out = new LineOutputStream(false);
+    private final LineOutputStream err = new LineOutputStream(true);
+    private final Thread drain;
+
+    LogPump(RunContext runContext, LogThrottle throttle) {
+        this.runContext = runContext;
+        this.logger = runContext.logger();
+        this.throttle = throttle;
+        this.drain = Thread.ofVirtual().name("graalvm-log").start(this::drain);
+    }
+
+    OutputStream out() {
+        return out;
+    }
+
+    OutputStream err() {
+        return err;
+    }
+
+    LogThrottle throttle() {
+        return throttle;
+    }
+
+    /**
+     * Log the last unterminated lines, wait for every queued line to be logged and report the dropped ones.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            out.close();
+            err.close();
+        } finally {
+            // a killed task has its thread interrupted, the drain thread must still be stopped: the interrupt is restored once it is
+            boolean interrupted = Thread.interrupted();
+            while (true) {
+                try {
+                    lines.put(END);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            while (true) {
+                try {
+                    drain.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        long dropped = throttle.dropped();
+        if (dropped > 0) {
+            runContext.metric(Counter.of("logs.dropped", dropped));
+            logger.warn("{} line(s) of script output were not logged because of the log limits", dropped);
+        }
+    }
+
+    private void drain() {
+        List<Line> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (true) {
+                batch.add(lines.take());
+                lines.drainTo(batch, BATCH_SIZE - 1);
+
+                for (Line line : batch) {
+                    if (line == END) {
+                        return;
+                    }
+                    log(line);
+                }
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void log(Line line) {
+        try {
+            if (line.error()) {
+                logger.error(line.message());
+            } else {
+                logger.info(line.message());
+            }
+        } catch (Exception e) {
+            // silently fail if we cannot log a line
+        }
+    }
+
+    private record Line(boolean error, String message) {}
+
+    private class LineOutputStream extends OutputStream {
+        private final boolean error;
+        private byte[] buffer = new byte[256];
+        private int length;
+        private boolean closed;
+
+        LineOutputStream(boolean error) {
+            this.error = error;
+        }
+
+        @Override
+        public synchronized void write(int b) throws InterruptedIOException {
+            if (closed) {
+                return;
+            }
+
+            if (b == '\n') {
+                emit();
+            } else {
+                append((byte) b);
+            }
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws InterruptedIOException {
+            if (closed) {
+                return;
+            }
+
+            int start = off;
+            int end = off + len;
+            for (int i = off; i < end; i++) {
+                if (b[i] == '\n') {
+                    append(b, start, i - start);
+                    emit();
+                    start = i + 1;
+                }
+            }
+            append(b, start, end - start);
+        }
+
+        @Override
+        public synchronized void close() throws InterruptedIOException {
+            if (!closed && length > 0) {
+                emit();
+            }
+            closed = true;
+        }
+
+        private void append(byte b) throws InterruptedIOException {
+            if (length == MAX_LINE_LENGTH) {
+                emit();
+            }
+            ensureCapacity(length + 1);
+            buffer[length++] = b;
+        }
+
+        private void append(byte[] b, int off, int len) throws InterruptedIOException {
+            // a line reaching the maximum length is logged, the rest of it goes to the next one
+            while (length + len > MAX_LINE_LENGTH) {
+                int part = MAX_LINE_LENGTH - length;
+                ensureCapacity(MAX_LINE_LENGTH);
+                System.arraycopy(b, off, buffer, length, part);
+                length += part;
+                emit();
+                off += part;
+                len -= part;
+            }
+
+            ensureCapacity(length + len);
+            System.arraycopy(b, off, buffer, length, len);
+            length += len;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.min(Math.max(capacity, buffer.length * 2), MAX_LINE_LENGTH));
+            }
+        }
+
+        private void emit() throws InterruptedIOException {
+            if (!throttle.tryAcquire()) {
+                length = 0;
+                return;
+            }
+
+            // a trailing carriage return (Windows line ending) is not part of the line
+            int end = length > 0 && buffer[length - 1] == '\r' ? length - 1 : length;
+            String message = new String(buffer, 0, end, StandardCharsets.UTF_8);
+            length = 0;
+            if (buffer.length > MAX_RETAINED_BUFFER) {
+                // don't keep the memory of a single long line for the rest of the run
+                buffer = new byte[256];
+            }
+
+            try {
+                lines.put(new Line(error, message));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while logging the script output");
+            }
+        }
+    }
+}
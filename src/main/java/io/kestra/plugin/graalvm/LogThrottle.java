@@ -0,0 +1,71 @@
+package io.kestra.plugin.graalvm;
+
+/**
+ * Decide which guest log lines of a task run are logged, shared by the guest stdout/stderr and the language log handler.
+ * Checked in order: the total number of logged lines, the sampling of lines past a threshold, then the rate per second.
+ * A {@code null} limit is not applied.
+ */
+class LogThrottle {
+    static final LogThrottle UNLIMITED = new LogThrottle(null, null, 1, null);
+
+    private final Integer linesPerSecond;
+    private final Integer sampleAfter;
+    private final int sampleRate;
+    private final Long maxLines;
+
+    private long seen;
+    private long logged;
+    private long dropped;
+    private long windowStart;
+    private int windowCount;
+
+    LogThrottle(Integer linesPerSecond, Integer sampleAfter, int sampleRate, Long maxLines) {
+        this.linesPerSecond = linesPerSecond;
+        this.sampleAfter = sampleAfter;
+        this.sampleRate = sampleRate;
+        this.maxLines = maxLines;
+        this.windowStart = System.nanoTime();
+    }
+
+    boolean tryAcquire() {
+        // no lock when nothing is limited
+        return this == UNLIMITED || acquire();
+    }
+
+    private synchronized boolean acquire() {
+        long index = seen++;
+
+        if (maxLines != null && logged >= maxLines) {
+            return drop();
+        }
+
+        // past the threshold, only one line out of `sampleRate` is kept
+        if (sampleAfter != null && index >= sampleAfter && (index - sampleAfter) % sampleRate != 0) {
+            return drop();
+        }
+
+        if (linesPerSecond != null) {
+            long now = System.nanoTime();
+            if (now - windowStart >= 1_000_000_000L) {
+                windowStart = now;
+                windowCount = 0;
+            }
+            if (windowCount >= linesPerSecond) {
+                return drop();
+            }
+            windowCount++;
+        }
+
+        logged++;
+        return true;
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    private boolean drop() {
+        dropped++;
+        return false;
+    }
+}
@@ -0,0 +1,94 @@
+package io.kestra.plugin.graalvm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read a local file through successive read-only memory mappings of at most {@link #CHUNK_SIZE} bytes,
+ * so reading a large file costs page faults instead of a read system call and a kernel to user copy per buffer.
+ * Closing the stream closes the channel, and the stream the channel comes from.
+ */
+class MappedInputStream extends InputStream {
+    static final long CHUNK_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private long position;
+    private MappedByteBuffer buffer;
+
+    MappedInputStream(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.position = channel.position();
+        this.size = channel.size();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!next()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!next()) {
+            return -1;
+        }
+
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+
+        long remaining = buffer != null ? buffer.remaining() : 0;
+        if (n <= remaining) {
+            buffer.position(buffer.position() + (int) n);
+            return n;
+        }
+
+        // drop the current mapping, the next read maps from the new position
+        long skipped = Math.min(n, remaining + size - position);
+        position += skipped - remaining;
+        buffer = null;
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        long remaining = (buffer != null ? buffer.remaining() : 0) + size - position;
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer = null;
+        channel.close();
+    }
+
+    // map the next chunk once the current one is consumed, false at the end of the file
+    private boolean next() throws IOException {
+        if (buffer != null && buffer.hasRemaining()) {
+            return true;
+        }
+        if (position >= size) {
+            return false;
+        }
+
+        long length = Math.min(CHUNK_SIZE, size - position);
+        buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+        position += length;
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.models.executions.metrics.Timer;
+import io.kestra.core.runners.RunContext;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sum the time spent in each phase of a task run (context creation, evaluation, conversion, upload...), possibly on
+ * several threads, and report each phase once as a {@code <phase>.duration} timer instead of one metric per row.
+ */
+class PhaseTimers {
+    static final String CONTEXT_CREATE = "context.create";
+    static final String EVAL = "eval";
+    static final String EXECUTE = "execute";
+    static final String CONVERT = "convert";
+    static final String UPLOAD = "upload";
+
+    private final Map<String, LongAdder> nanos = new ConcurrentHashMap<>();
+
+    long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Add the time elapsed since {@code start} to the phase, and return the current time to chain the next phase.
+     */
+    long stop(String phase, long start) {
+        long now = System.nanoTime();
+        nanos.computeIfAbsent(phase, k -> new LongAdder()).add(now - start);
+        return now;
+    }
+
+    /**
+     * Report the total time of each phase that was timed.
+     */
+    void report(RunContext runContext) {
+        nanos.forEach((phase, total) -> runContext.metric(Timer.of(phase + ".duration", Duration.ofNanos(total.sum()))));
+    }
+}
@@ -0,0 +1,155 @@
+package io.kestra.plugin.graalvm;
+
+import com.oracle.truffle.api.source.SourceSection;
+import com.oracle.truffle.tools.profiler.CPUSampler;
+import com.oracle.truffle.tools.profiler.CPUSamplerData;
+import com.oracle.truffle.tools.profiler.MemoryTracer;
+import com.oracle.truffle.tools.profiler.ProfilerNode;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+import org.graalvm.polyglot.Engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * CPU sampler and allocation tracer of the guest code of a task run, stored as collapsed stacks: one {@code frame;frame;frame count}
+ * line per stack, the format read by flame graph tools like {@code flamegraph.pl} or speedscope. CPU samples are counted on the
+ * stack running when they were taken, allocations on the stack allocating them, with the type of the allocated object as last frame.
+ * <p>
+ * The tools are attached to an engine dedicated to the run, so that the scripts of other tasks sharing the plugin engine
+ * are not profiled with it; the code parsed by the run is not cached for the next ones.
+ * Frames are named after the guest function and its location, internal frames of the languages without a location are skipped.
+ * Only the allocations reported by the language are traced: JavaScript and Ruby report some of them without their size, Python none.
+ */
+class Profiler implements AutoCloseable {
+    private static final String EXTENSION = ".collapsed";
+
+    private final Engine engine;
+    private final CPUSampler sampler;
+    private final MemoryTracer tracer;
+
+    Profiler(boolean cpu, boolean memory) {
+        this.engine = Engine.newBuilder().build();
+        this.sampler = cpu ? CPUSampler.find(engine) : null;
+        this.tracer = memory ? MemoryTracer.find(engine) : null;
+
+        if (sampler != null) {
+            sampler.setCollecting(true);
+        }
+        if (tracer != null) {
+            tracer.setCollecting(true);
+        }
+    }
+
+    /**
+     * The engine the contexts of the run must be created on to be sampled.
+     */
+    Engine engine() {
+        return engine;
+    }
+
+    /**
+     * Stop sampling and store the CPU samples taken so far in the internal storage, null when the CPU is not sampled.
+     */
+    URI storeSamples(RunContext runContext) throws IOException {
+        if (sampler == null) {
+            return null;
+        }
+        sampler.setCollecting(false);
+
+        Map<String, Long> stacks = new LinkedHashMap<>();
+        for (CPUSamplerData data : sampler.getDataList()) {
+            for (Collection<ProfilerNode<CPUSampler.Payload>> roots : data.getThreadData().values()) {
+                roots.forEach(root -> collapse(root, null, (stack, payload) -> {
+                    if (payload.getSelfHitCount() > 0) {
+                        stacks.merge(stack, (long) payload.getSelfHitCount(), Long::sum);
+                    }
+                }));
+            }
+        }
+
+        return store(runContext, stacks);
+    }
+
+    /**
+     * Stop tracing and store the allocations traced so far in the internal storage, reporting their number in the
+     * {@code memory.allocations} metric; null when the memory is not traced.
+     */
+    URI storeAllocations(RunContext runContext) throws IOException {
+        if (tracer == null) {
+            return null;
+        }
+        tracer.setCollecting(false);
+
+        Map<String, Long> stacks = new LinkedHashMap<>();
+        for (Collection<ProfilerNode<MemoryTracer.Payload>> roots : tracer.getThreadToNodesMap().values()) {
+            roots.forEach(root -> collapse(root, null, (stack, payload) -> {
+                for (MemoryTracer.AllocationEventInfo event : payload.getEvents()) {
+                    stacks.merge(stack + ";" + name(String.valueOf(event.getMetaObjectString())), 1L, Long::sum);
+                }
+            }));
+        }
+
+        runContext.metric(Counter.of("memory.allocations", stacks.values().stream().mapToLong(Long::longValue).sum()));
+        return store(runContext, stacks);
+    }
+
+    private static URI store(RunContext runContext, Map<String, Long> stacks) throws IOException {
+        Path file = runContext.workingDir().createTempFile(EXTENSION);
+        try (var writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), FileSerde.BUFFER_SIZE)) {
+            for (Map.Entry<String, Long> stack : stacks.entrySet()) {
+                writer.write(stack.getKey());
+                writer.write(' ');
+                writer.write(Long.toString(stack.getValue()));
+                writer.newLine();
+            }
+        }
+
+        return runContext.storage().putFile(file.toFile());
+    }
+
+    @Override
+    public void close() {
+        if (sampler != null) {
+            sampler.close();
+        }
+        if (tracer != null) {
+            tracer.close();
+        }
+        // contexts left open by a failed run are cancelled
+        engine.close(true);
+    }
+
+    // what is recorded on a node is counted on the stack leading to it, threads are merged
+    private static <T> void collapse(ProfilerNode<T> node, String stack, BiConsumer<String, T> count) {
+        SourceSection section = node.getSourceSection();
+        if (section != null) {
+            String frame = name(node.getRootName() + " (" + section.getSource().getName() + ":" + section.getStartLine() + ")");
+            stack = stack == null ? frame : stack + ";" + frame;
+        }
+
+        if (stack != null) {
+            count.accept(stack, node.getPayload());
+        }
+
+        for (ProfilerNode<T> child : node.getChildren()) {
+            collapse(child, stack, count);
+        }
+    }
+
+    // ';' separates the frames and each line is a stack, neither can be part of a frame name
+    private static String name(String frame) {
+        return frame.replace(';', ',').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,36 @@
+package io.kestra.plugin.graalvm;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream whose target can be switched, so a pooled context can write its stdout/stderr to the task run
+ * that currently holds it. Closing it never closes the target, which is owned by the task run.
+ */
+class RedirectOutputStream extends OutputStream {
+    private volatile OutputStream target = OutputStream.nullOutputStream();
+
+    void redirect(OutputStream target) {
+        this.target = target == null ? OutputStream.nullOutputStream() : target;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        target.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        target.write(b, off, len);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        target.flush();
+    }
+
+    @Override
+    public void close() {
+        this.target = OutputStream.nullOutputStream();
+    }
+}
@@ -0,0 +1,236 @@
+package io.kestra.plugin.graalvm;
+
+import com.sun.management.ThreadMXBean;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Gauge;
+import io.kestra.core.runners.RunContext;
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.ResourceLimits;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Enforce the resource limits and the timeout of a task run on the contexts running its script, and cancel them when the task is killed.
+ * When the memory of the run is traced, its allocated bytes and the peak heap used by the worker while it runs are reported on close.
+ * The statement limit is a polyglot {@link ResourceLimits} of each context. The CPU time and allocated bytes budgets are
+ * shared by all the contexts of the run: threads entering a context are measured through the {@link ThreadMXBean}.
+ * <p>
+ * A watchdog, only scheduled when a budget or the task timeout is set, cancels every context of the run as soon as one is exceeded.
+ * {@link #kill()} cancels them when the task is killed: the thread running the task is also interrupted, but guest code running
+ * on other threads, like the concurrent rails of a FileTransform, doesn't notice that interruption.
+ * Threads without CPU time measurement (virtual threads) are charged their elapsed time instead, and their allocations are not counted.
+ */
+class ResourceLimiter implements AutoCloseable {
+    private static final long CHECK_INTERVAL_MILLIS = 10;
+    private static final ThreadMXBean THREADS = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(
+        Thread.ofPlatform().daemon().name("graalvm-resource-watchdog").factory()
+    );
+
+    private static final Stop KILLED = new Stop(null, "The script was cancelled as the task was killed");
+
+    private final RunContext runContext;
+    private final Long maxStatements;
+    private final Duration maxCpuTime;
+    private final Long maxAllocatedBytes;
+    private final Duration timeout;
+    private final boolean traceMemory;
+    private final long start = System.nanoTime();
+    private final Map<Thread, Usage> running = new ConcurrentHashMap<>();
+    private final Set<Context> contexts = ConcurrentHashMap.newKeySet();
+    private final AtomicLong cpuTime = new AtomicLong();
+    private final AtomicLong allocatedBytes = new AtomicLong();
+    private final AtomicLong heapPeak = new AtomicLong();
+    private final ScheduledFuture<?> watchdog;
+    private volatile Stop stop;
+
+    ResourceLimiter(RunContext runContext, Long maxStatements, Duration maxCpuTime, Long maxAllocatedBytes, Duration timeout, boolean traceMemory) {
+        this.runContext = runContext;
+        this.maxStatements = maxStatements;
+        this.maxCpuTime = maxCpuTime;
+        this.maxAllocatedBytes = maxAllocatedBytes;
+        this.timeout = timeout;
+        this.traceMemory = traceMemory;
+        if (traceMemory) {
+            sampleHeap();
+        }
+        this.watchdog = timeout != null || measured() ?
+            WATCHDOG.scheduleWithFixedDelay(this::check, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS) :
+            null;
+    }
+
+    Context.Builder apply(Context.Builder builder) {
+        if (maxStatements != null) {
+            builder.resourceLimits(ResourceLimits.newBuilder().statementLimit(maxStatements, null).build());
+        }
+        return builder;
+    }
+
+    /**
+     * Track the context, about to run guest code on the current thread, and start charging the thread.
+     */
+    void enter(Context context) {
+        Stop stop = this.stop;
+        if (stop != null) {
+            throw new IllegalStateException(stop.message());
+        }
+
+        contexts.add(context);
+        if (measured()) {
+            Thread thread = Thread.currentThread();
+            running.put(thread, new Usage(cpuTime(thread), allocatedBytes(thread)));
+        }
+    }
+
+    /**
+     * Stop charging the current thread.
+     */
+    void exit() {
+        if (!measured()) {
+            return;
+        }
+
+        Thread thread = Thread.currentThread();
+        Usage usage = running.remove(thread);
+        if (usage != null) {
+            cpuTime.addAndGet(cpuTime(thread) - usage.cpuTime());
+            allocatedBytes.addAndGet(allocatedBytes(thread) - usage.allocatedBytes());
+        }
+    }
+
+    /**
+     * Replace the failure of a script cancelled or stopped by a limit with one telling why it was stopped,
+     * other failures are returned as is.
+     */
+    RuntimeException failure(RuntimeException e) {
+        Stop stop = this.stop;
+        if (stop == null && e instanceof PolyglotException polyglotException) {
+            if (maxStatements != null && polyglotException.isResourceExhausted()) {
+                stop = new Stop("statements", "The script exceeded its limit of " + maxStatements + " statements");
+            } else if (polyglotException.isInterrupted()) {
+                // the language may notice the interruption of the task thread before kill() is called
+                stop = KILLED;
+            }
+        }
+
+        if (stop == null) {
+            return e;
+        }
+
+        if (stop.limit() != null) {
+            runContext.metric(Counter.of("limits.exceeded", 1, "limit", stop.limit()));
+        }
+        return new IllegalStateException(stop.message(), e);
+    }
+
+    /**
+     * Cancel the script as the task is killed.
+     */
+    void kill() {
+        cancel(KILLED);
+    }
+
+    @Override
+    public void close() {
+        if (watchdog != null) {
+            watchdog.cancel(false);
+        }
+
+        if (traceMemory) {
+            sampleHeap();
+            runContext.metric(Counter.of("memory.allocated.bytes", allocatedBytes.get()));
+            runContext.metric(Gauge.of("memory.heap.peak", heapPeak.get()));
+        }
+    }
+
+    /**
+     * Close a context, which rethrows the failure of a script cancelled, interrupted or stopped by a limit: it is already reported by the run.
+     * A context still running guest code on another thread is cancelled.
+     */
+    static void close(Context context) {
+        try {
+            context.close(true);
+        } catch (PolyglotException e) {
+            if (!e.isCancelled() && !e.isResourceExhausted() && !e.isInterrupted()) {
+                throw e;
+            }
+        }
+    }
+
+    private boolean measured() {
+        return maxCpuTime != null || maxAllocatedBytes != null || traceMemory;
+    }
+
+    private void check() {
+        if (timeout != null && System.nanoTime() - start > timeout.toNanos()) {
+            cancel(new Stop("timeout", "The script exceeded the task timeout of " + timeout));
+            return;
+        }
+
+        if (traceMemory) {
+            sampleHeap();
+        }
+
+        if (!measured()) {
+            return;
+        }
+
+        long cpuTime = this.cpuTime.get();
+        long allocatedBytes = this.allocatedBytes.get();
+        for (Map.Entry<Thread, Usage> entry : running.entrySet()) {
+            cpuTime += cpuTime(entry.getKey()) - entry.getValue().cpuTime();
+            allocatedBytes += allocatedBytes(entry.getKey()) - entry.getValue().allocatedBytes();
+        }
+
+        if (maxCpuTime != null && cpuTime > maxCpuTime.toNanos()) {
+            cancel(new Stop("cpuTime", "The script exceeded its CPU time limit of " + maxCpuTime));
+        } else if (maxAllocatedBytes != null && allocatedBytes > maxAllocatedBytes) {
+            cancel(new Stop("allocatedBytes", "The script exceeded its limit of " + maxAllocatedBytes + " allocated bytes"));
+        }
+    }
+
+    private void cancel(Stop stop) {
+        this.stop = stop;
+        if (watchdog != null) {
+            watchdog.cancel(false);
+        }
+
+        for (Context context : contexts) {
+            try {
+                context.close(true);
+            } catch (RuntimeException e) {
+                // the context may already be closed by its task
+            }
+        }
+    }
+
+    private void sampleHeap() {
+        heapPeak.accumulateAndGet(MEMORY.getHeapMemoryUsage().getUsed(), Math::max);
+    }
+
+    private static long cpuTime(Thread thread) {
+        long cpuTime = THREADS.getThreadCpuTime(thread.threadId());
+        return cpuTime >= 0 ? cpuTime : System.nanoTime();
+    }
+
+    private static long allocatedBytes(Thread thread) {
+        return Math.max(THREADS.getThreadAllocatedBytes(thread.threadId()), 0);
+    }
+
+    private record Usage(long cpuTime, long allocatedBytes) {}
+
+    // the limit is null when the task was killed
+    private record Stop(String limit, String message) {}
+}
@@ -6,10 +6,27 @@ import org.slf4j.bridge.SLF4JBridgeHandler;
 import java.util.logging.LogRecord;
 
 class SLF4JJULHandler extends SLF4JBridgeHandler {
-    private final Logger logger;
+    private volatile Logger logger;
+    private volatile LogThrottle throttle;
 
-    SLF4JJULHandler(Logger logger) {
+    SLF4JJULHandler(Logger logger, LogThrottle throttle) {
         this.logger = logger;
+        this.throttle = throttle;
+    }
+
+    // pooled contexts keep their handler but log to the task run currently using them
+    void setLogger(Logger logger, LogThrottle throttle) {
+        this.logger = logger;
+        this.throttle = throttle;
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        // an idle pooled context has no task run to log to
+        LogThrottle throttle = this.throttle;
+        if (this.logger != null && (throttle == null || throttle.tryAcquire())) {
+            super.publish(record);
+        }
     }
 
     @Override
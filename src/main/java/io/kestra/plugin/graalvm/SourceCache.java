@@ -0,0 +1,84 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Source;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Process-wide LRU cache of {@link Source} keyed by language and content digest.
+ * Handing the same cached {@link Source} instance to the shared engine lets it reuse the parsed and compiled code
+ * across task runs instead of keeping it only as long as a per-run {@link Source} is reachable.
+ * The cache is bounded both by entry count and by the total number of cached characters.
+ */
+class SourceCache {
+    static final SourceCache INSTANCE = new SourceCache(512, 32 * 1024 * 1024);
+
+    private final int maxEntries;
+    private final long maxCharacters;
+    private final LinkedHashMap<String, Source> sources = new LinkedHashMap<>(16, 0.75f, true);
+    private long characters;
+
+    SourceCache(int maxEntries, long maxCharacters) {
+        this.maxEntries = maxEntries;
+        this.maxCharacters = maxCharacters;
+    }
+
+    record Lookup(Source source, boolean hit) {}
+
+    Lookup get(String languageId, String code) {
+        String key = languageId + ":" + digest(code);
+
+        synchronized (sources) {
+            Source source = sources.get(key);
+            if (source != null) {
+                return new Lookup(source, true);
+            }
+        }
+
+        // build outside the lock, a concurrent miss on the same key only costs a duplicate Source
+        Source source = Source.newBuilder(languageId, code, "Unnamed")
+            .cached(true)
+            .buildLiteral();
+
+        // too big to ever fit, don't flush the whole cache for it
+        if (code.length() > maxCharacters) {
+            return new Lookup(source, false);
+        }
+
+        synchronized (sources) {
+            Source previous = sources.putIfAbsent(key, source);
+            if (previous != null) {
+                return new Lookup(previous, true);
+            }
+
+            characters += code.length();
+            evict();
+        }
+
+        return new Lookup(source, false);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Source>> iterator = sources.entrySet().iterator();
+        while ((sources.size() > maxEntries || characters > maxCharacters) && iterator.hasNext()) {
+            characters -= iterator.next().getValue().getCharacters().length();
+            iterator.remove();
+        }
+    }
+
+    private static String digest(String code) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(code.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every Java platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package io.kestra.plugin.graalvm;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.serializers.FileSerde;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Upload what is written to it into the internal storage as it is written, instead of going through a local file.
+ * Bytes are grouped into chunks handed over a bounded queue to a virtual thread feeding {@code putFile(InputStream, name)},
+ * so the writer only waits when the storage is slower than the transformation.
+ * <p>
+ * {@link #close()} completes the upload and waits for it, {@link #abort()} makes the upload fail instead, so that a
+ * failed transformation never stores a truncated file as a result.
+ */
+class StorageUpload extends OutputStream {
+    private static final int CHUNK_SIZE = FileSerde.BUFFER_SIZE;
+    private static final int QUEUED_CHUNKS = 16;
+    private static final byte[] END = new byte[0];
+    private static final byte[] ABORT = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+    private final Thread upload;
+    private byte[] chunk = new byte[CHUNK_SIZE];
+    private int length;
+    private boolean closed;
+    private volatile URI uri;
+    private volatile Throwable failure;
+
+    StorageUpload(RunContext runContext, String name) {
+        this.upload = Thread.ofVirtual().name("graalvm-upload").start(() -> upload(runContext, name));
+    }
+
+    /**
+     * The URI of the stored file, once closed.
+     */
+    URI uri() {
+        return uri;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (length == CHUNK_SIZE) {
+            send();
+        }
+        chunk[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        while (len > 0) {
+            if (length == CHUNK_SIZE) {
+                send();
+            }
+            int count = Math.min(len, CHUNK_SIZE - length);
+            System.arraycopy(b, off, chunk, length, count);
+            length += count;
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        if (failure == null && length > 0) {
+            send();
+        }
+        closed = true;
+        finish(failure == null ? END : ABORT);
+
+        if (failure != null) {
+            throw new IOException("Unable to upload the result file", failure);
+        }
+    }
+
+    /**
+     * Stop the upload without completing it, the storage gets a failed write instead of a truncated file.
+     */
+    void abort() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            finish(ABORT);
+        } catch (IOException e) {
+            // the upload is being given up, nothing more can be done
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("The upload is closed");
+        }
+        if (failure != null) {
+            throw new IOException("Unable to upload the result file", failure);
+        }
+    }
+
+    private void send() throws InterruptedIOException {
+        put(chunk.length == length ? chunk : Arrays.copyOf(chunk, length));
+        chunk = new byte[CHUNK_SIZE];
+        length = 0;
+    }
+
+    private void finish(byte[] marker) throws InterruptedIOException {
+        // a killed task has its thread interrupted, the upload must still be ended to release the storage stream
+        boolean interrupted = Thread.interrupted();
+        try {
+            put(marker);
+            upload.join();
+        } catch (InterruptedException e) {
+            interrupted = true;
+            throw new InterruptedIOException("Interrupted while waiting for the upload of the result file");
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void put(byte[] bytes) throws InterruptedIOException {
+        try {
+            chunks.put(bytes);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while uploading the result file");
+        }
+    }
+
+    private void upload(RunContext runContext, String name) {
+        var input = new ChunkInputStream();
+        try (input) {
+            uri = runContext.storage().putFile(input, name);
+        } catch (Throwable e) {
+            failure = e;
+        }
+
+        // a failed upload may stop reading before the end, keep consuming so that the writer is never blocked
+        try {
+            while (!input.ended) {
+                byte[] bytes = chunks.take();
+                input.ended = bytes == END || bytes == ABORT;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class ChunkInputStream extends InputStream {
+        private byte[] current = new byte[0];
+        private int position;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            if (!next()) {
+                return -1;
+            }
+            return current[position++] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!next()) {
+                return -1;
+            }
+
+            int count = Math.min(len, current.length - position);
+            System.arraycopy(current, position, b, off, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return current.length - position;
+        }
+
+        // take the next chunk once the current one is consumed, false at the end of the upload
+        private boolean next() throws IOException {
+            while (position == current.length) {
+                if (ended) {
+                    return false;
+                }
+
+                byte[] bytes;
+                try {
+                    bytes = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while uploading the result file");
+                }
+
+                if (bytes == END || bytes == ABORT) {
+                    ended = true;
+                    if (bytes == ABORT) {
+                        throw new IOException("The transformation failed, the result file is not stored");
+                    }
+                    return false;
+                }
+
+                current = bytes;
+                position = 0;
+            }
+            return true;
+        }
+    }
+}
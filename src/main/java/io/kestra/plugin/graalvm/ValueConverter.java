@@ -0,0 +1,172 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Value;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Copy guest values into plain host objects, so they stay usable once the context is closed or used by another thread.
+ * Collections are sized from the guest value upfront and binary buffers are read in bulk into a {@code byte[]}.
+ * <p>
+ * The copy cannot be made lazy: task outputs and rows are serialized after their context is closed or handed to
+ * another run, and a {@link Value} must not be read from anymore at that point.
+ */
+final class ValueConverter {
+    private ValueConverter() {
+    }
+
+    static Object toHost(Value member) {
+        if (member == null || member.isNull()) {
+            return null;
+        }
+        if (member.isString()) {
+            return member.asString();
+        }
+        if (member.isBoolean()) {
+            return member.asBoolean();
+        }
+        if (member.isNumber()) {
+            return toNumber(member);
+        }
+        if (member.isProxyObject()) {
+            return member.asProxyObject();
+        }
+        if (member.isHostObject()) {
+            return copy(member.asHostObject());
+        }
+        // before arrays: values exposing both (e.g. Python bytes) are better kept binary
+        if (member.hasBufferElements()) {
+            return toBytes(member);
+        }
+        if (member.hasArrayElements()) {
+            return toList(member);
+        }
+        if (member.hasHashEntries()) {
+            return toMap(member);
+        }
+        if (member.hasMembers()) {
+            Set<String> keys = member.getMemberKeys();
+            Map<String, Object> values = LinkedHashMap.newLinkedHashMap(keys.size());
+            for (String key : keys) {
+                values.put(key, toHost(member.getMember(key)));
+            }
+            return values;
+        }
+
+        // do our best to use a known type, this will crash with a ClassCastException if the type is not transformable
+        return member.as(Object.class);
+    }
+
+    /**
+     * Copy the maps, lists and arrays of a host object, like a row read from a file or a batch column: the script may have assigned guest values
+     * into them, which the language wrapped into polyglot maps and lists still tied to the context. Other objects are kept as is.
+     */
+    static Object copy(Object value) {
+        switch (value) {
+            case null -> {
+                return null;
+            }
+            case Value guest -> {
+                return toHost(guest);
+            }
+            case Map<?, ?> map -> {
+                Map<Object, Object> values = LinkedHashMap.newLinkedHashMap(map.size());
+                map.forEach((key, item) -> values.put(key, item == null ? null : copy(item)));
+                return values;
+            }
+            case List<?> list -> {
+                List<Object> values = new ArrayList<>(list.size());
+                for (Object item : list) {
+                    values.add(item == null ? null : copy(item));
+                }
+                return values;
+            }
+            case Object[] array -> {
+                Object[] values = new Object[array.length];
+                for (int i = 0; i < array.length; i++) {
+                    values[i] = array[i] == null ? null : copy(array[i]);
+                }
+                return values;
+            }
+            default -> {
+                return value;
+            }
+        }
+    }
+
+    static List<Object> toList(Value array) {
+        int size = Math.toIntExact(array.getArraySize());
+        List<Object> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(toHost(array.getArrayElement(i)));
+        }
+        return values;
+    }
+
+    static Map<String, Object> toMap(Value hash) {
+        Map<String, Object> values = LinkedHashMap.newLinkedHashMap(Math.toIntExact(hash.getHashSize()));
+        Value iterator = hash.getHashEntriesIterator();
+        while (iterator.hasIteratorNextElement()) {
+            Value entry = iterator.getIteratorNextElement();
+            values.put(key(entry.getArrayElement(0)), toHost(entry.getArrayElement(1)));
+        }
+        return values;
+    }
+
+    /**
+     * Convert only the given members of an object, missing ones are mapped to {@code null}.
+     */
+    static Map<String, Object> toMap(Value value, List<String> keys) {
+        Map<String, Object> values = LinkedHashMap.newLinkedHashMap(keys.size());
+        keys.forEach(key -> values.put(key, toHost(value.getMember(key))));
+
+        return values;
+    }
+
+    private static Object toNumber(Value member) {
+        if (member.fitsInInt()) {
+            return member.asInt();
+        }
+        if (member.fitsInLong()) {
+            return member.asLong();
+        }
+        if (member.fitsInFloat()) {
+            return member.asFloat();
+        }
+        if (member.fitsInDouble()) {
+            return member.asDouble();
+        }
+
+        // big integers
+        return member.as(Object.class);
+    }
+
+    private static byte[] toBytes(Value buffer) {
+        byte[] bytes = new byte[Math.toIntExact(buffer.getBufferSize())];
+        readBuffer(buffer, 0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    /**
+     * Bulk read of a guest buffer, falling back to reading byte by byte for languages that only support the latter (Python).
+     * A genuine error is raised again by the byte by byte read.
+     */
+    static void readBuffer(Value buffer, long position, byte[] destination, int offset, int length) {
+        try {
+            buffer.readBuffer(position, destination, offset, length);
+        } catch (RuntimeException e) {
+            // depending on the caller, an unsupported bulk read surfaces as a PolyglotException or an internal engine exception
+            for (int i = 0; i < length; i++) {
+                destination[offset + i] = buffer.readBufferByte(position + i);
+            }
+        }
+    }
+
+    private static String key(Value key) {
+        return key.isString() ? key.asString() : key.toString();
+    }
+}
@@ -0,0 +1,164 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.PolyglotException;
+import org.graalvm.polyglot.Value;
+import org.slf4j.Logger;
+
+import java.time.Duration;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Process-wide pools of pre-initialized contexts, used by {@link AbstractEval} in pooled mode.
+ * Acquiring never waits: when no idle context is available a new one is created, and the pool size only bounds
+ * how many idle contexts are kept. Contexts are discarded once they reached their max reuse count, when their
+ * bindings cannot be reset, or after staying idle longer than the idle timeout.
+ */
+class WarmContextPool {
+    private static final Map<String, WarmContextPool> POOLS = new ConcurrentHashMap<>();
+    private static final Duration SWEEP_INTERVAL = Duration.ofSeconds(30);
+
+    static {
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().daemon().name("graalvm-context-pool-sweeper").factory()
+        );
+        sweeper.scheduleWithFixedDelay(
+            () -> POOLS.values().forEach(WarmContextPool::evictIdle),
+            SWEEP_INTERVAL.toMillis(),
+            SWEEP_INTERVAL.toMillis(),
+            TimeUnit.MILLISECONDS
+        );
+    }
+
+    private final Deque<Pooled> idle = new ConcurrentLinkedDeque<>();
+    private volatile int size;
+    private volatile int maxReuse;
+    private volatile Duration idleTimeout;
+
+    /**
+     * Get the pool for the given key, creating it on first use. The pool settings of the latest caller win.
+     */
+    static WarmContextPool of(String key, int size, int maxReuse, Duration idleTimeout) {
+        WarmContextPool pool = POOLS.computeIfAbsent(key, k -> new WarmContextPool());
+        pool.size = size;
+        pool.maxReuse = maxReuse;
+        pool.idleTimeout = idleTimeout;
+
+        return pool;
+    }
+
+    /**
+     * Take an idle context, or create one with the factory, which receives the pooled holder to wire its streams and log handler.
+     */
+    Pooled acquire(Function<Pooled, Context> factory) {
+        evictIdle();
+
+        // most recently used first, so the least used ones are the first to go idle
+        Pooled pooled = idle.pollFirst();
+        if (pooled != null) {
+            pooled.reused = true;
+            return pooled;
+        }
+
+        pooled = new Pooled();
+        pooled.context = factory.apply(pooled);
+        return pooled;
+    }
+
+    /**
+     * Give a context back, resetting the bindings that were added since it was created.
+     * The context is closed instead when it cannot be reset or has been used too many times.
+     */
+    void release(Pooled pooled, Value bindings) {
+        pooled.detach();
+        pooled.uses++;
+        pooled.lastUsed = System.nanoTime();
+
+        if (pooled.uses >= maxReuse || !pooled.reset(bindings) || idle.size() >= size) {
+            pooled.close();
+            return;
+        }
+
+        idle.offerFirst(pooled);
+    }
+
+    private void evictIdle() {
+        long deadline = System.nanoTime() - idleTimeout.toNanos();
+
+        Iterator<Pooled> iterator = idle.descendingIterator();
+        while (iterator.hasNext()) {
+            Pooled pooled = iterator.next();
+            if (pooled.lastUsed < deadline && idle.removeLastOccurrence(pooled)) {
+                pooled.close();
+            }
+        }
+    }
+
+    static class Pooled implements AutoCloseable {
+        final RedirectOutputStream out = new RedirectOutputStream();
+        final RedirectOutputStream err = new RedirectOutputStream();
+        final SLF4JJULHandler logHandler = new SLF4JJULHandler(null, null);
+
+        private Context context;
+        private Set<String> baseline;
+        private int uses;
+        private long lastUsed;
+        private boolean reused;
+
+        Context context() {
+            return context;
+        }
+
+        boolean reused() {
+            return reused;
+        }
+
+        /**
+         * Remember the bindings of the freshly initialized context, everything added later is removed on release.
+         */
+        void baseline(Value bindings) {
+            this.baseline = new HashSet<>(bindings.getMemberKeys());
+        }
+
+        void attach(Logger logger, LogPump logs) {
+            this.logHandler.setLogger(logger, logs.throttle());
+            this.out.redirect(logs.out());
+            this.err.redirect(logs.err());
+        }
+
+        void detach() {
+            this.logHandler.setLogger(null, null);
+            this.out.redirect(null);
+            this.err.redirect(null);
+        }
+
+        private boolean reset(Value bindings) {
+            try {
+                for (String key : Set.copyOf(bindings.getMemberKeys())) {
+                    if (!baseline.contains(key)) {
+                        bindings.removeMember(key);
+                    }
+                }
+                return true;
+            } catch (UnsupportedOperationException | PolyglotException | IllegalStateException e) {
+                // some members (e.g. JavaScript top-level `var`) cannot be removed: don't leak them to the next run
+                return false;
+            }
+        }
+
+        @Override
+        public void close() {
+            ResourceLimiter.close(context);
+        }
+    }
+}
@@ -54,6 +54,26 @@ import lombok.experimental.SuperBuilder;
                         out = runContext.storage().putFile(tempFile);
                         return {"map": map, "out": out};
                       })"""
+        ),
+        @Example(
+            full = true,
+            title = "Generate binary data and store it in the internal storage.",
+            code = """
+                id: evalJsBinary
+                namespace: company.team
+
+                tasks:
+                  - id: evalJs
+                    type: io.kestra.plugin.graalvm.js.Eval
+                    outputs:
+                      - uri
+                    script: |
+                      var bytes = new Uint8Array(1024 * 1024);
+                      for (var i = 0; i < bytes.length; i++) {
+                        bytes[i] = i % 256;
+                      }
+                      var uri = storage.put(bytes, 'data.bin');
+                      ({"uri": uri})"""
         )
     },
     metrics = {
@@ -77,4 +97,11 @@ public class Eval extends AbstractEval {
     public Output run(RunContext runContext) throws Exception {
         return this.run(runContext, "js");
     }
+
+    // top-level `let`, `const` and `var` can't be removed from the bindings: a reused context would fail the next run
+    // of the script with an already declared variable, so it would be closed on every release instead of pooled
+    @Override
+    protected boolean poolable() {
+        return false;
+    }
 }
@@ -7,6 +7,8 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.enums.MonacoLanguages;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Gauge;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.graalvm.AbstractFileTransform;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -62,6 +64,35 @@ import lombok.experimental.SuperBuilder;
            type = Counter.TYPE,
            unit = "count",
            description = "Number of records or entities processed by the JavaScript script. This includes both modified and filtered rows from the input file."
+       ),
+       @Metric(
+           name = "upload.duration",
+           type = Timer.TYPE,
+           description = "Time spent uploading the result file; with `streamUpload`, only the wait for the end of the upload once the rows are written."
+       ),
+       @Metric(
+           name = "rows.in",
+           type = Counter.TYPE,
+           unit = "count",
+           description = "Number of rows read from the source."
+       ),
+       @Metric(
+           name = "rows.out",
+           type = Counter.TYPE,
+           unit = "count",
+           description = "Number of rows written to the result file."
+       ),
+       @Metric(
+           name = "rows.dropped",
+           type = Counter.TYPE,
+           unit = "count",
+           description = "Number of source rows the script dropped; for a batch, the rows missing from its result."
+       ),
+       @Metric(
+           name = "rows.throughput",
+           type = Gauge.TYPE,
+           unit = "rows/s",
+           description = "Rows written per second over the whole transformation."
        )
     }
 )
@@ -77,4 +108,9 @@ public class FileTransform extends AbstractFileTransform {
     public Output run(RunContext runContext) throws Exception {
         return this.run(runContext, "js");
     }
+
+    @Override
+    protected String wrapFunction(String script, String argument) {
+        return "(function(" + argument + ") {\n" + script + "\nreturn " + argument + ";\n})";
+    }
 }
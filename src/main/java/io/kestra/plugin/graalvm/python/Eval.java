@@ -14,6 +14,7 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
 import org.graalvm.python.embedding.GraalPyResources;
 import org.graalvm.python.embedding.VirtualFileSystem;
 
@@ -111,11 +112,24 @@ import static io.kestra.core.utils.Rethrow.throwBiConsumer;
           type = Counter.TYPE,
           unit = "count",
           description = "Tracks a user defined numeric value emitted from the Python script, such as the number of processed records or computed results."
+      ),
+      @Metric(
+          name = "context.pool.hits",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of runs served by an already initialized context from the pool, only emitted when `pooled` is true."
+      ),
+      @Metric(
+          name = "context.pool.misses",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of runs for which a new pooled context had to be created and initialized, only emitted when `pooled` is true."
       )
     }
 )
 public class Eval extends AbstractEval {
     private static final Path MODULE_PATH = Path.of("__kestra_python");
+    private static final Source FLUSH = Source.create("python", "import sys\nsys.stdout.flush()\nsys.stderr.flush()");
 
     @Schema(
         title = "Inline Python modules to preload",
@@ -167,4 +181,15 @@ public class Eval extends AbstractEval {
             return GraalPyResources.contextBuilder(runContext.workingDir().resolve(MODULE_PATH));
         }
     }
+
+    // modules are loaded through a dedicated context configuration, which a shared pooled context cannot have
+    @Override
+    protected boolean poolable() {
+        return modules == null;
+    }
+
+    @Override
+    protected void flushOutput(Context context) {
+        context.eval(FLUSH);
+    }
 }
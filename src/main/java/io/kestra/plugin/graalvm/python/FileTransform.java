@@ -7,6 +7,8 @@ import io.kestra.core.models.property.Property;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.enums.MonacoLanguages;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Gauge;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.graalvm.AbstractFileTransform;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -16,6 +18,8 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 
+import java.util.stream.Collectors;
+
 @SuperBuilder
 @ToString
 @EqualsAndHashCode
@@ -60,6 +64,35 @@ import lombok.experimental.SuperBuilder;
           type = Counter.TYPE,
           unit = "count",
           description = "Number of records or entities processed by the Python script. This includes both modified and filtered rows from the input file."
+      ),
+      @Metric(
+          name = "upload.duration",
+          type = Timer.TYPE,
+          description = "Time spent uploading the result file; with `streamUpload`, only the wait for the end of the upload once the rows are written."
+      ),
+      @Metric(
+          name = "rows.in",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of rows read from the source."
+      ),
+      @Metric(
+          name = "rows.out",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of rows written to the result file."
+      ),
+      @Metric(
+          name = "rows.dropped",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of source rows the script dropped; for a batch, the rows missing from its result."
+      ),
+      @Metric(
+          name = "rows.throughput",
+          type = Gauge.TYPE,
+          unit = "rows/s",
+          description = "Rows written per second over the whole transformation."
       )
     }
 )
@@ -75,4 +108,14 @@ public class FileTransform extends AbstractFileTransform {
     public Output run(RunContext runContext) throws Exception {
         return this.run(runContext, "python");
     }
+
+    @Override
+    protected String wrapFunction(String script, String argument) {
+        // Python has no anonymous multi-statement function, so the script becomes the indented body of a named one
+        String body = script.stripTrailing().stripIndent().lines()
+            .map(line -> "    " + line)
+            .collect(Collectors.joining("\n"));
+
+        return "def __kestra_function(" + argument + "):\n" + body + "\n    return " + argument + "\n\n__kestra_function";
+    }
 }
@@ -16,6 +16,7 @@ import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
 import org.graalvm.polyglot.Context;
+import org.graalvm.polyglot.Source;
 import org.graalvm.polyglot.Value;
 
 @SuperBuilder
@@ -64,10 +65,23 @@ import org.graalvm.polyglot.Value;
           type = Counter.TYPE,
           unit = "count",
           description = "Tracks a user defined numeric value emitted from the Ruby script, such as the number of processed records or computed results."
-      )
+      ),
+        @Metric(
+          name = "context.pool.hits",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of runs served by an already initialized context from the pool, only emitted when `pooled` is true."
+        ),
+        @Metric(
+          name = "context.pool.misses",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of runs for which a new pooled context had to be created and initialized, only emitted when `pooled` is true."
+        )
     }
 )
 public class Eval extends AbstractEval {
+    private static final Source FLUSH = Source.create("ruby", "$stdout.flush\n$stderr.flush");
 
     @PluginProperty(language = MonacoLanguages.RUBY)
     @Override
@@ -85,4 +99,9 @@ public class Eval extends AbstractEval {
     protected Value getBindings(Context context, String languageId) {
         return context.getPolyglotBindings();
     }
+
+    @Override
+    protected void flushOutput(Context context) {
+        context.eval(FLUSH);
+    }
 }
@@ -6,6 +6,8 @@ import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.enums.MonacoLanguages;
 import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.executions.metrics.Gauge;
+import io.kestra.core.models.executions.metrics.Timer;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.plugin.graalvm.AbstractFileTransform;
@@ -64,6 +66,35 @@ import org.graalvm.polyglot.Value;
           type = Counter.TYPE,
           unit = "count",
           description = "Number of records or entities processed by the Ruby script. This includes both modified and filtered rows from the input file."
+      ),
+      @Metric(
+          name = "upload.duration",
+          type = Timer.TYPE,
+          description = "Time spent uploading the result file; with `streamUpload`, only the wait for the end of the upload once the rows are written."
+      ),
+      @Metric(
+          name = "rows.in",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of rows read from the source."
+      ),
+      @Metric(
+          name = "rows.out",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of rows written to the result file."
+      ),
+      @Metric(
+          name = "rows.dropped",
+          type = Counter.TYPE,
+          unit = "count",
+          description = "Number of source rows the script dropped; for a batch, the rows missing from its result."
+      ),
+      @Metric(
+          name = "rows.throughput",
+          type = Gauge.TYPE,
+          unit = "rows/s",
+          description = "Rows written per second over the whole transformation."
       )
     }
 )
@@ -80,6 +111,11 @@ public class FileTransform extends AbstractFileTransform {
         return this.run(runContext, "ruby");
     }
 
+    @Override
+    protected String wrapFunction(String script, String argument) {
+        return "lambda do |" + argument + "|\n" + script + "\n" + argument + "\nend";
+    }
+
     // Standard bindings didn't work with Ruby so we must use Polyglot bindings
     @Override
     protected Value getBindings(Context context, String languageId) {
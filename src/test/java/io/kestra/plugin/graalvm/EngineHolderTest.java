@@ -0,0 +1,28 @@
+package io.kestra.plugin.graalvm;
+
+import org.graalvm.polyglot.Engine;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class EngineHolderTest {
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "js     ; JSON.parse('{}')",
+        "python ; import json",
+        "ruby   ; {'id' => 1}.map { |key, value| [key, value * 2] }.to_h"
+    })
+    void warmup(String languageId, String script) {
+        try (Engine engine = Engine.newBuilder().build()) {
+            int warmed = EngineHolder.warmup(engine, Map.of(languageId, List.of(script)), LoggerFactory.getLogger(EngineHolderTest.class));
+
+            assertThat(warmed, is(1));
+        }
+    }
+}
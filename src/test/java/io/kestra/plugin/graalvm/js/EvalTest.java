@@ -1,16 +1,23 @@
 package io.kestra.plugin.graalvm.js;
 
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.IdUtils;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.net.URI;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -143,5 +150,283 @@ class EvalTest {
         assertThat((Map<String, Object>) runOutput.getOutputs().get("map"), aMapWithSize(1));
         assertThat(((Map<String, Object>) runOutput.getOutputs().get("map")).get("test"), is("here"));
         assertThat(((URI) runOutput.getOutputs().get("out")).toString(), startsWith("kestra:///"));
+
+        // one timer per phase of the run
+        assertThat(metric(runContext, "context.create.duration"), notNullValue());
+        assertThat(metric(runContext, "eval.duration"), notNullValue());
+        assertThat(metric(runContext, "execute.duration"), notNullValue());
+        assertThat(metric(runContext, "convert.duration"), notNullValue());
+    }
+
+    @Test
+    void runHashOutputs() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Eval task = Eval.builder()
+            .script(Property.ofValue(
+                "new Map([['list', [1, [2, 3], {'a': true}]], ['bytes', new Uint8Array([1, 2, 255]).buffer], ['ignored', 'here']])"
+            ))
+            .outputs(Property.ofValue(List.of("list", "bytes", "missing")))
+            .build();
+
+        // a hash result is returned whole, not only the declared outputs
+        var runOutput = task.run(runContext);
+        assertThat(runOutput.getOutputs(), aMapWithSize(3));
+        assertThat(runOutput.getOutputs().get("list"), is(List.of(1, List.of(2, 3), Map.of("a", true))));
+        assertThat(runOutput.getOutputs().get("bytes"), is(new byte[]{1, 2, (byte) 255}));
+        assertThat(runOutput.getOutputs().get("ignored"), is("here"));
+        assertThat(runOutput.getOutputs(), not(hasKey("missing")));
+    }
+
+    @Test
+    void storeBuffer() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Eval task = Eval.builder()
+            .script(Property.ofValue("""
+                var bytes = new Uint8Array(256);
+                for (var i = 0; i < bytes.length; i++) {
+                  bytes[i] = i;
+                }
+                ({
+                  buffer: storage.put(bytes.buffer, 'buffer.bin'),
+                  view: storage.put(bytes.subarray(250)),
+                  text: storage.put('Hello World', 'hello.txt')
+                })
+                """))
+            .outputs(Property.ofValue(List.of("buffer", "view", "text")))
+            .build();
+
+        var outputs = task.run(runContext).getOutputs();
+        byte[] buffer = runContext.storage().getFile((URI) outputs.get("buffer")).readAllBytes();
+        assertThat(buffer.length, is(256));
+        assertThat(buffer[255], is((byte) 255));
+        assertThat(runContext.storage().getFile((URI) outputs.get("view")).readAllBytes(), is(new byte[]{(byte) 250, (byte) 251, (byte) 252, (byte) 253, (byte) 254, (byte) 255}));
+        assertThat(new String(runContext.storage().getFile((URI) outputs.get("text")).readAllBytes()), is("Hello World"));
+        assertThat(outputs.get("text").toString(), endsWith("hello.txt"));
+    }
+
+    @Test
+    void reuseCachedSource() throws Exception {
+        // a unique script so that the first run cannot hit an entry cached by another test
+        Eval task = evalOf("'" + IdUtils.create() + "'");
+
+        RunContext first = runContextFactory.of();
+        task.run(first);
+        assertThat(metric(first, "source.cache.misses"), is(1D));
+
+        RunContext second = runContextFactory.of();
+        task.run(second);
+        assertThat(metric(second, "source.cache.hits"), is(1D));
+        assertThat(metric(second, "source.cache.misses"), nullValue());
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void runChattyScript() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        // far more output than a pipe buffer, written before the script returns
+        Eval task = Eval.builder()
+            .script(Property.ofValue("""
+                for (let i = 0; i < 20000; i++) {
+                  console.log('line ' + i);
+                  console.error('error ' + i);
+                }
+                ({ count: 20000 })
+                """))
+            .outputs(Property.ofValue(List.of("count")))
+            .build();
+
+        var runOutput = task.run(runContext);
+        assertThat(runOutput.getOutputs().get("count"), is(20000));
+    }
+
+    @Test
+    void stopAtStatementLimit() {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("while (true) {}"))
+            .maxStatements(Property.ofValue(1000L))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), is("The script exceeded its limit of 1000 statements"));
+        assertThat(metric(runContext, "limits.exceeded"), is(1.0));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void cancelAtCpuTimeLimit() {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("while (true) {}"))
+            .maxCpuTime(Property.ofValue(Duration.ofMillis(500)))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), is("The script exceeded its CPU time limit of PT0.5S"));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void cancelAtAllocatedBytesLimit() {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("""
+                let rows = [];
+                while (true) {
+                  rows.push({ value: 'x'.repeat(1000) + rows.length });
+                  if (rows.length > 1000) {
+                    rows = [];
+                  }
+                }
+                """))
+            .maxAllocatedBytes(Property.ofValue(64L * 1024 * 1024))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), is("The script exceeded its limit of 67108864 allocated bytes"));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void cancelAtTaskTimeout() {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("while (true) {}"))
+            .timeout(Property.ofValue(Duration.ofSeconds(1)))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> task.run(runContext));
+        assertThat(exception.getMessage(), is("The script exceeded the task timeout of PT1S"));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void cancelWhenKilled() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Eval task = evalOf("while (true) {}");
+
+        // the worker calls kill() on a killed task, then interrupts its thread
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                task.run(runContext);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(500);
+        task.kill();
+        thread.interrupt();
+        thread.join();
+
+        assertThat(failure.get(), instanceOf(IllegalStateException.class));
+        assertThat(failure.get().getMessage(), is("The script was cancelled as the task was killed"));
+    }
+
+    @Test
+    void runProfile() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("""
+                function busy() {
+                    let end = Date.now() + 300;
+                    while (Date.now() < end) {}
+                }
+                busy();"""
+            ))
+            .profile(Property.ofValue(true))
+            .build();
+
+        Eval.Output output = task.run(runContext);
+
+        assertThat(output.getProfile(), notNullValue());
+        try (InputStream profile = runContext.storage().getFile(output.getProfile())) {
+            // samples may be taken in busy itself or in the Date.now it calls
+            assertThat(new String(profile.readAllBytes()), containsString(":program (Unnamed:1);busy (Unnamed:1)"));
+        }
+    }
+
+    @Test
+    void runTraceMemory() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .script(Property.ofValue("""
+                function rows() {
+                    let rows = [];
+                    for (let i = 0; i < 1000; i++) {
+                        rows.push([i]);
+                    }
+                    return rows;
+                }
+                rows();"""
+            ))
+            .traceMemory(Property.ofValue(true))
+            .build();
+
+        Eval.Output output = task.run(runContext);
+
+        assertThat((Double) metric(runContext, "memory.allocated.bytes"), greaterThan(0D));
+        assertThat((Double) metric(runContext, "memory.heap.peak"), greaterThan(0D));
+        assertThat((Double) metric(runContext, "memory.allocations"), greaterThanOrEqualTo(1000D));
+        assertThat(output.getProfile(), nullValue());
+        try (InputStream allocations = runContext.storage().getFile(output.getAllocations())) {
+            assertThat(new String(allocations.readAllBytes()), containsString(":program (Unnamed:1);rows (Unnamed:1);Array "));
+        }
+    }
+
+    @Test
+    void runPooledTwice() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            RunContext runContext = runContextFactory.of();
+            Eval task = Eval.builder()
+                .id("unit-test")
+                .type(Eval.class.getName())
+                .pooled(Property.ofValue(true))
+                .poolSize(Property.ofValue(1))
+                .script(Property.ofValue("""
+                    let total = 0;
+                    for (let i = 0; i < 2; i++) {
+                        total += i;
+                    }
+                    ({total: total})"""
+                ))
+                .outputs(Property.ofValue(List.of("total")))
+                .build();
+
+            var runOutput = task.run(runContext);
+
+            assertThat(runOutput.getOutputs().get("total"), is(1));
+            // neither reused nor created for the pool
+            assertThat(metric(runContext, "context.pool.hits"), nullValue());
+            assertThat(metric(runContext, "context.pool.misses"), nullValue());
+        }
+    }
+
+    @Test
+    void runLongLine() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .logMaxLines(Property.ofValue(1L))
+            .script(Property.ofValue("console.log('x'.repeat(150 * 1024))"))
+            .build();
+
+        task.run(runContext);
+
+        // logged in parts of 64 KiB, only the first one is kept
+        assertThat(metric(runContext, "logs.dropped"), is(2D));
+    }
+
+    private static Object metric(RunContext runContext, String name) {
+        return runContext.metrics().stream()
+            .filter(metric -> metric.getName().equals(name))
+            .findFirst()
+            .map(AbstractMetricEntry::getValue)
+            .orElse(null);
     }
-}
\ No newline at end of file
+}
@@ -1,24 +1,43 @@
 package io.kestra.plugin.graalvm.js;
 
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.DefaultRunContext;
 import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.runners.RunContextInitializer;
 import io.kestra.core.serializers.FileSerde;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.tenant.TenantService;
 import io.kestra.core.utils.IdUtils;
+import io.kestra.plugin.graalvm.Compression;
+import io.kestra.plugin.graalvm.FileFormat;
 import jakarta.inject.Inject;
+import org.graalvm.polyglot.PolyglotException;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 public class FileTransformTest {
@@ -28,6 +47,9 @@ public class FileTransformTest {
     @Inject
     private RunContextFactory runContextFactory;
 
+    @Inject
+    private RunContextInitializer runContextInitializer;
+
     @Test
     void run() throws Exception {
         try (InputStream is = FileTransformTest.class.getClassLoader().getResourceAsStream("wikipedia_page_view.ion")) {
@@ -80,4 +102,588 @@ public class FileTransformTest {
             }
         }
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runConcurrent() throws Exception {
+        try (InputStream is = FileTransformTest.class.getClassLoader().getResourceAsStream("wikipedia_page_view.ion")) {
+            var uri = storageInterface.put(
+                TenantService.MAIN_TENANT,
+                null,
+                new URI("/" + IdUtils.create()),
+                is
+            );
+
+            var runContext = runContextFactory.of();
+
+            var fileTransform = FileTransform.builder()
+                .id("fileTransform")
+                .from(Property.ofValue(uri.toString()))
+                .concurrent(Property.ofValue(4))
+                .script(Property.ofValue("""
+                      if (row['title'] === 'Main_Page' || row['title'] === 'Special:Search' || row['title'] === '-') {
+                        row = null
+                      } else {
+                        row = {'title': row['title'], 'views': row['views'], 'tags': [1, 2]}
+                      }
+                    """))
+                .build();
+
+            var output = fileTransform.run(runContext);
+            assertThat(output.getUri(), notNullValue());
+            try (InputStream ionIs = new BufferedInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri()), FileSerde.BUFFER_SIZE)) {
+                List<Object> result = new ArrayList<>();
+                FileSerde.read(ionIs, result::add);
+                assertThat(result.size(), is(7));
+                assertThat(((Map<String, Object>) result.getFirst()).get("tags"), is(List.of(1, 2)));
+            }
+        }
+    }
+
+    @Test
+    void runConcurrentNestedValues() throws Exception {
+        var runContext = runContextFactory.of();
+        var from = IntStream.range(0, 500).mapToObj(i -> "{\"id\":" + i + "}").collect(Collectors.joining(",", "[", "]"));
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(from))
+            .concurrent(Property.ofValue(4))
+            .ordered(Property.ofValue(true))
+            .script(Property.ofValue("""
+                // guest arrays and objects assigned into the host row
+                row['tags'] = [row['id'], 2];
+                row['nested'] = {'ids': [row['id']], 'name': 'row' + row['id']};
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = new BufferedInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri()), FileSerde.BUFFER_SIZE)) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result.size(), is(500));
+            for (int i = 0; i < result.size(); i++) {
+                Map<String, Object> row = (Map<String, Object>) result.get(i);
+                assertThat(row.get("tags"), is(List.of(i, 2)));
+                assertThat(row.get("nested"), is(Map.of("ids", List.of(i), "name", "row" + i)));
+            }
+        }
+    }
+
+    @Test
+    void runRowFunction() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"v\":2},{\"id\":666,\"v\":3},{\"id\":3,\"v\":4}]"))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                  if (row['id'] === 666) {
+                    return null;
+                  }
+                  row['double'] = row['v'] * 2;
+                  if (row['id'] === 3) {
+                    return [row, {'id': 4}];
+                  }
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        assertThat(output.getUri(), notNullValue());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,v:2,double:4}
+                {id:3,v:4,double:8}
+                {id:4}"""));
+        }
+    }
+
+    @Test
+    void runInlineObject() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("{\"id\":1,\"nested\":{\"values\":[1,2]}}"))
+            .script(Property.ofValue("row['id'] = row['id'] + 1"))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("{id:2,nested:{values:[1,2]}}"));
+        }
+    }
+
+    @Test
+    void runBatch() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3}]"))
+            .batchSize(Property.ofValue(2))
+            .script(Property.ofValue("""
+                var kept = [];
+                for (var i = 0; i < rows.length; i++) {
+                  if (rows[i]['id'] !== 2) {
+                    rows[i]['batch'] = rows.length;
+                    kept.push(rows[i]);
+                  }
+                }
+                rows = kept;
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,batch:2}
+                {id:3,batch:1}"""));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void runConcurrentOrdered() throws Exception {
+        var runContext = runContextFactory.of();
+        var from = IntStream.range(0, 200).mapToObj(i -> "{\"id\":" + i + "}").collect(Collectors.joining(",", "[", "]"));
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(from))
+            .concurrent(Property.ofValue(4))
+            .ordered(Property.ofValue(true))
+            .script(Property.ofValue("""
+                // uneven row costs, so that rows would finish out of order
+                var end = Date.now() + (row['id'] % 7);
+                while (Date.now() < end) {}
+                row['square'] = row['id'] * row['id'];
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = new BufferedInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri()), FileSerde.BUFFER_SIZE)) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result.size(), is(200));
+            for (int i = 0; i < result.size(); i++) {
+                assertThat(((Map<String, Object>) result.get(i)).get("id"), is(i));
+            }
+        }
+    }
+
+    @Test
+    void runLogLimits() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(IntStream.range(0, 100)
+                .mapToObj(i -> "{\"id\":" + i + "}")
+                .collect(Collectors.joining(",", "[", "]"))
+            ))
+            .logSampleAfter(Property.ofValue(10))
+            .logSampleRate(Property.ofValue(10))
+            .logMaxLines(Property.ofValue(15L))
+            .script(Property.ofValue("""
+                  console.log('row ' + row['id']);
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result.size(), is(100));
+        }
+
+        // the 10 first lines, then one out of 10 until 15 lines are logged
+        var dropped = runContext.metrics().stream()
+            .filter(metric -> metric.getName().equals("logs.dropped"))
+            .findFirst()
+            .orElseThrow();
+        assertThat(dropped.getValue(), is(85D));
+    }
+
+    @Test
+    void runColumnar() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"v\":2.5,\"name\":\"a\"},{\"id\":2,\"v\":3,\"name\":\"b\"},{\"id\":3,\"v\":4}]"))
+            .batchSize(Property.ofValue(2))
+            .columnar(Property.ofValue(true))
+            .script(Property.ofValue("""
+                  var v = columns['v'];
+                  for (var i = 0; i < v.length; i++) {
+                    v[i] = v[i] * 2;
+                  }
+                  columns['size'] = Array.from({length: v.length}, () => v.length);
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result, is(List.of(
+                Map.of("id", 1, "v", 5.0, "name", "a", "size", 2),
+                Map.of("id", 2, "v", 6.0, "name", "b", "size", 2),
+                Map.of("id", 3, "v", 8, "size", 1)
+            )));
+        }
+    }
+
+    @Test
+    void runConcurrentColumnarNestedValues() throws Exception {
+        var runContext = runContextFactory.of();
+        // mixed values, so that `meta` is an Object[] column
+        var from = IntStream.range(0, 500).mapToObj(i -> "{\"id\":" + i + ",\"meta\":" + (i % 2 == 0 ? "1" : "\"x\"") + "}").collect(Collectors.joining(",", "[", "]"));
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(from))
+            .concurrent(Property.ofValue(4))
+            .ordered(Property.ofValue(true))
+            .batchSize(Property.ofValue(10))
+            .columnar(Property.ofValue(true))
+            .script(Property.ofValue("""
+                // guest objects assigned into the host column
+                var ids = columns['id'];
+                var meta = columns['meta'];
+                for (var i = 0; i < ids.length; i++) {
+                  meta[i] = {'ids': [ids[i]], 'name': 'row' + ids[i]};
+                }
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = new BufferedInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri()), FileSerde.BUFFER_SIZE)) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result.size(), is(500));
+            for (int i = 0; i < result.size(); i++) {
+                Map<String, Object> row = (Map<String, Object>) result.get(i);
+                assertThat(row.get("meta"), is(Map.of("ids", List.of(i), "name", "row" + i)));
+            }
+        }
+    }
+
+    @Test
+    void runJsonLinesOutput() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"tags\":[\"a\"]},{\"id\":2}]"))
+            .outputFormat(Property.ofValue(FileFormat.JSONL))
+            .script(Property.ofValue("row['double'] = row['id'] * 2"))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        assertThat(output.getUri().toString(), endsWith(".jsonl"));
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {"id":1,"tags":["a"],"double":2}
+                {"id":2,"double":4}
+                """));
+        }
+    }
+
+    @Test
+    void runCsvOutput() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"name\":\"plain\"},{\"id\":2,\"name\":\"with, \\\"quotes\\\"\"},{\"id\":3}]"))
+            .outputFormat(Property.ofValue(FileFormat.CSV))
+            .script(Property.ofValue("row['id'] = row['id'] * 10"))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        assertThat(output.getUri().toString(), endsWith(".csv"));
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is(
+                "id,name\r\n" +
+                "10,plain\r\n" +
+                "20,\"with, \"\"quotes\"\"\"\r\n" +
+                "30,\r\n"
+            ));
+        }
+    }
+
+    @Test
+    void runCsvOutputExtraColumn() {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"name\":\"first\"},{\"id\":2},{\"id\":3,\"extra\":true}]"))
+            .outputFormat(Property.ofValue(FileFormat.CSV))
+            .script(Property.ofValue("row['id'] = row['id'] * 10"))
+            .build();
+
+        var exception = assertThrows(IllegalArgumentException.class, () -> fileTransform.run(runContext));
+        assertThat(exception.getMessage(), startsWith("Row 3 has a column 'extra' missing from the CSV header [id, name]"));
+    }
+
+    @Test
+    void runCsvInputExtraValues() throws Exception {
+        var uri = storageInterface.put(
+            TenantService.MAIN_TENANT,
+            null,
+            new URI("/" + IdUtils.create() + ".csv"),
+            new ByteArrayInputStream("id,name\r\n1,\"multi\nline\"\r\n2,second,extra\r\n".getBytes())
+        );
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(uri.toString()))
+            .script(Property.ofValue("row['id'] = parseInt(row['id']) * 10"))
+            .build();
+
+        var exception = assertThrows(Exception.class, () -> fileTransform.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), containsString("Line 4 has 3 values, more than the 2 columns of the CSV header [id, name]"));
+    }
+
+    @Test
+    void runCsvInput() throws Exception {
+        var uri = storageInterface.put(
+            TenantService.MAIN_TENANT,
+            null,
+            new URI("/" + IdUtils.create() + ".csv"),
+            new ByteArrayInputStream("id,name\r\n1,plain\r\n2,\"multi\nline, \"\"quoted\"\"\"\r\n\r\n3,\r\n".getBytes())
+        );
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(uri.toString()))
+            .outputFormat(Property.ofValue(FileFormat.JSONL))
+            .script(Property.ofValue("row['id'] = parseInt(row['id']) * 10"))
+            .build();
+
+        var output = fileTransform.run(runContextFactory.of());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {"id":10,"name":"plain"}
+                {"id":20,"name":"multi\\nline, \\"quoted\\""}
+                {"id":30}
+                """));
+        }
+    }
+
+    @Test
+    void runJsonLinesInput() throws Exception {
+        var uri = storageInterface.put(
+            TenantService.MAIN_TENANT,
+            null,
+            new URI("/" + IdUtils.create() + ".data"),
+            new ByteArrayInputStream("{\"id\":1}\n{\"id\":2,\"tags\":[\"a\"]}\n".getBytes())
+        );
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(uri.toString()))
+            .inputFormat(Property.ofValue(FileFormat.JSONL))
+            .script(Property.ofValue("row['id'] = row['id'] + 1"))
+            .build();
+
+        var output = fileTransform.run(runContextFactory.of());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:2}
+                {id:3,tags:["a"]}"""));
+        }
+    }
+
+    @Test
+    void runLocalFile() throws Exception {
+        // local paths are only resolved by an initialized run context, as on a worker
+        var runContext = runContextInitializer.forExecutor((DefaultRunContext) runContextFactory.of());
+
+        Path file = runContext.workingDir().createTempFile(".ion");
+        try (InputStream is = FileTransformTest.class.getClassLoader().getResourceAsStream("wikipedia_page_view.ion")) {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(file.toUri().toString()))
+            .script(Property.ofValue("""
+                  if (row['title'] === 'Main_Page' || row['title'] === 'Special:Search' || row['title'] === '-') {
+                    row = null
+                  }
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream ionIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            List<Object> result = new ArrayList<>();
+            FileSerde.read(ionIs, result::add);
+            assertThat(result.size(), is(7));
+        }
+    }
+
+    @Test
+    void runStreamUpload() throws Exception {
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"count\":5000}]"))
+            .rowFunction(Property.ofValue(true))
+            .streamUpload(Property.ofValue(true))
+            .outputFormat(Property.ofValue(FileFormat.JSONL))
+            .script(Property.ofValue("return Array.from({length: row['count']}, (_, i) => ({id: i, payload: 'x'.repeat(20)}))"))
+            .build();
+
+        var output = fileTransform.run(runContextFactory.of());
+        assertThat(output.getUri().toString(), endsWith(".jsonl"));
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            String[] lines = new String(resultIs.readAllBytes()).split("\n");
+            assertThat(lines.length, is(5000));
+            assertThat(lines[4999], is("{\"id\":4999,\"payload\":\"xxxxxxxxxxxxxxxxxxxx\"}"));
+        }
+    }
+
+    @Test
+    void runStreamUploadFailure() {
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2}]"))
+            .streamUpload(Property.ofValue(true))
+            .script(Property.ofValue("if (row['id'] === 2) { throw new Error('failed on purpose') }"))
+            .build();
+
+        var exception = assertThrows(PolyglotException.class, () -> fileTransform.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), containsString("failed on purpose"));
+    }
+
+    @Test
+    void runStreamUploadGzipFailure() {
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2}]"))
+            .streamUpload(Property.ofValue(true))
+            .compression(Property.ofValue(Compression.GZIP))
+            .script(Property.ofValue("if (row['id'] === 2) { throw new Error('failed on purpose') }"))
+            .build();
+
+        // releasing the compressor doesn't hide the failure
+        var exception = assertThrows(PolyglotException.class, () -> fileTransform.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), containsString("failed on purpose"));
+    }
+
+    @Test
+    void runGzip() throws Exception {
+        var compress = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2}]"))
+            .outputFormat(Property.ofValue(FileFormat.JSONL))
+            .compression(Property.ofValue(Compression.GZIP))
+            .script(Property.ofValue("row['id'] = row['id'] * 10"))
+            .build();
+
+        var compressed = compress.run(runContextFactory.of());
+        assertThat(compressed.getUri().toString(), endsWith(".jsonl.gz"));
+        try (InputStream resultIs = new GZIPInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, compressed.getUri()))) {
+            assertThat(new String(resultIs.readAllBytes()), is("{\"id\":10}\n{\"id\":20}\n"));
+        }
+
+        // the compressed result is read back as JSON Lines without any option
+        var decompress = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue(compressed.getUri().toString()))
+            .script(Property.ofValue("row['id'] = row['id'] + 1"))
+            .build();
+
+        var output = decompress.run(runContextFactory.of());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("{id:11}\n{id:21}"));
+        }
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void runCpuTimeLimit() {
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}]"))
+            .concurrent(Property.ofValue(2))
+            .maxCpuTime(Property.ofValue(Duration.ofMillis(500)))
+            .script(Property.ofValue("while (true) {}"))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> fileTransform.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), is("The script exceeded its CPU time limit of PT0.5S"));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void runTimeout() {
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}]"))
+            .concurrent(Property.ofValue(2))
+            .streamUpload(Property.ofValue(true))
+            .timeout(Property.ofValue(Duration.ofSeconds(1)))
+            .script(Property.ofValue("while (true) {}"))
+            .build();
+
+        var exception = assertThrows(IllegalStateException.class, () -> fileTransform.run(runContextFactory.of()));
+        assertThat(exception.getMessage(), is("The script exceeded the task timeout of PT1S"));
+    }
+
+    @Test
+    void runRowMetrics() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3},{\"id\":4}]"))
+            .script(Property.ofValue("if (row['id'] === 2) { row = null }"))
+            .build();
+
+        fileTransform.run(runContext);
+
+        Map<String, Object> metrics = runContext.metrics().stream()
+            .collect(Collectors.toMap(AbstractMetricEntry::getName, AbstractMetricEntry::getValue, (first, second) -> first));
+        assertThat(metrics.get("rows.in"), is(4D));
+        assertThat(metrics.get("rows.out"), is(3D));
+        assertThat(metrics.get("rows.dropped"), is(1D));
+        assertThat(metrics.get("rows.throughput"), notNullValue());
+        assertThat(metrics.get("context.create.duration"), notNullValue());
+        assertThat(metrics.get("eval.duration"), notNullValue());
+        assertThat(metrics.get("convert.duration"), notNullValue());
+        assertThat(metrics.get("upload.duration"), notNullValue());
+    }
+
+    @Test
+    void runProfile() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3}]"))
+            .concurrent(Property.ofValue(2))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                function busy() {
+                    let end = Date.now() + 200;
+                    while (Date.now() < end) {}
+                }
+                busy();
+                return row;"""
+            ))
+            .profile(Property.ofValue(true))
+            .build();
+
+        FileTransform.Output output = fileTransform.run(runContext);
+
+        assertThat(output.getProfile(), notNullValue());
+        try (InputStream profile = runContext.storage().getFile(output.getProfile())) {
+            assertThat(new String(profile.readAllBytes()), containsString(";busy (Unnamed:"));
+        }
+    }
 }
@@ -7,11 +7,14 @@ import io.kestra.core.runners.RunContextFactory;
 import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 
 import java.math.BigDecimal;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -116,4 +119,77 @@ class EvalTest {
         var runOutput = task.run(runContext);
         assertThat(runOutput, notNullValue());
     }
-}
\ No newline at end of file
+
+    @Test
+    void storeBytes() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Eval task = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .script(Property.ofValue(
+                """
+                    out = storage.put(bytes(range(256)) * 4, 'data.bin')
+                    """
+            ))
+            .outputs(Property.ofValue(List.of("out")))
+            .build();
+
+        var runOutput = task.run(runContext);
+        byte[] content = runContext.storage().getFile((URI) runOutput.getOutputs().get("out")).readAllBytes();
+        assertThat(content.length, is(1024));
+        assertThat(content[1023], is((byte) 255));
+    }
+
+    @Test
+    void runPooled() throws Exception {
+        Eval first = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .pooled(Property.ofValue(true))
+            .script(Property.ofValue("leaked = 'value'"))
+            .build();
+        first.run(runContextFactory.of());
+
+        RunContext runContext = runContextFactory.of();
+        Eval second = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .pooled(Property.ofValue(true))
+            .script(Property.ofValue("found = 'leaked' in globals()"))
+            .outputs(Property.ofValue(List.of("found")))
+            .build();
+
+        var runOutput = second.run(runContext);
+        assertThat(runOutput.getOutputs().get("found"), is(false));
+        assertThat(runContext.metrics().stream().anyMatch(metric -> metric.getName().equals("context.pool.hits")), is(true));
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    void cancelWhenKilled() throws Exception {
+        RunContext runContext = runContextFactory.of();
+        Eval task = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .script(Property.ofValue("while True:\n    pass\n"))
+            .build();
+
+        // Python doesn't notice the interruption of its thread, the task is cancelled by kill()
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                task.run(runContext);
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        thread.start();
+        Thread.sleep(1000);
+        task.kill();
+        thread.join();
+
+        assertThat(failure.get(), instanceOf(IllegalStateException.class));
+        assertThat(failure.get().getMessage(), is("The script was cancelled as the task was killed"));
+    }
+}
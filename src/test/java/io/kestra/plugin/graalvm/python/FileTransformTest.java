@@ -1,18 +1,23 @@
 package io.kestra.plugin.graalvm.python;
 
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.runners.RunContextFactory;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.tenant.TenantService;
 import io.kestra.core.utils.IdUtils;
+import io.kestra.plugin.graalvm.FileFormat;
 import jakarta.inject.Inject;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 
@@ -67,4 +72,123 @@ public class FileTransformTest {
             }
         }
     }
+
+    @Test
+    void runRowFunction() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"v\":2},{\"id\":666,\"v\":3},{\"id\":3,\"v\":4}]"))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                  if row['id'] == 666:
+                    return None
+                  row['double'] = row['v'] * 2
+                  if row['id'] == 3:
+                    return [row, {'id': 4}]
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        assertThat(output.getUri(), notNullValue());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,v:2,double:4}
+                {id:3,v:4,double:8}
+                {id:4}"""));
+        }
+    }
+
+    @Test
+    void runBatchRowFunction() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3}]"))
+            .batchSize(Property.ofValue(2))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                return [{'id': row['id'], 'batch': len(rows)} for row in rows if row['id'] != 2]
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,batch:2}
+                {id:3,batch:1}"""));
+        }
+    }
+
+    @Test
+    void runCsvOutputBinary() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1}]"))
+            .outputFormat(Property.ofValue(FileFormat.CSV))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                return {'id': row['id'], 'data': b'\\x01\\x02\\x03', 'tags': ['a', 'b']}
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is(
+                "id,data,tags\r\n" +
+                "1,AQID,\"[\"\"a\"\",\"\"b\"\"]\"\r\n"
+            ));
+        }
+    }
+
+    @Test
+    void runColumnarRowFunction() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"v\":2},{\"id\":2,\"v\":3},{\"id\":3,\"v\":4}]"))
+            .columnar(Property.ofValue(true))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                return {'id': columns['id'], 'square': [v * v for v in columns['v']]}
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,square:4}
+                {id:2,square:9}
+                {id:3,square:16}"""));
+        }
+    }
+
+    @Test
+    void runTraceMemory() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1},{\"id\":2},{\"id\":3}]"))
+            .script(Property.ofValue("""
+                row['values'] = [str(i) for i in range(10000)][-1]
+                """))
+            .traceMemory(Property.ofValue(true))
+            .build();
+
+        var output = fileTransform.run(runContext);
+
+        Map<String, Object> metrics = runContext.metrics().stream()
+            .collect(Collectors.toMap(AbstractMetricEntry::getName, AbstractMetricEntry::getValue, (first, second) -> first));
+        assertThat((Double) metrics.get("memory.allocated.bytes"), greaterThan(0D));
+        assertThat((Double) metrics.get("memory.heap.peak"), greaterThan(0D));
+        // Python doesn't report its allocations to the tracer
+        assertThat(metrics.get("memory.allocations"), is(0D));
+        assertThat(output.getAllocations(), notNullValue());
+    }
 }
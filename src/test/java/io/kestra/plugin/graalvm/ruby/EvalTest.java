@@ -55,4 +55,22 @@ class EvalTest {
         assertThat(((Map<String, Object>) runOutput.getOutputs().get("map")).get("test"), is("here"));
         assertThat(((URI) runOutput.getOutputs().get("out")).toString(), startsWith("kestra:///"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void runHashOutputs() throws Exception {
+        RunContext runContext = runContextFactory.of();
+
+        Eval task = Eval.builder()
+            .id("unit-test")
+            .type(Eval.class.getName())
+            .script(Property.ofValue("return {map: {test: 'here'}, other: 42}"))
+            .outputs(Property.ofValue(List.of("map")))
+            .build();
+
+        // a hash result is returned whole, not only the declared outputs
+        var runOutput = task.run(runContext);
+        assertThat(runOutput.getOutputs(), aMapWithSize(2));
+        assertThat(((Map<String, Object>) runOutput.getOutputs().get("map")).get("test"), is("here"));
+        assertThat(runOutput.getOutputs().get("other"), is(42));
+    }
+}
@@ -69,4 +69,27 @@ public class FileTransformTest {
             }
         }
     }
+
+    @Test
+    void runRowFunction() throws Exception {
+        var runContext = runContextFactory.of();
+
+        var fileTransform = FileTransform.builder()
+            .id("fileTransform")
+            .from(Property.ofValue("[{\"id\":1,\"v\":2},{\"id\":666,\"v\":3},{\"id\":3,\"v\":4}]"))
+            .rowFunction(Property.ofValue(true))
+            .script(Property.ofValue("""
+                  return nil if row[:id] == 666
+                  row[:double] = row[:v] * 2
+                """))
+            .build();
+
+        var output = fileTransform.run(runContext);
+        assertThat(output.getUri(), notNullValue());
+        try (InputStream resultIs = storageInterface.get(TenantService.MAIN_TENANT, null, output.getUri())) {
+            assertThat(new String(resultIs.readAllBytes()), is("""
+                {id:1,v:2,double:4}
+                {id:3,v:4,double:8}"""));
+        }
+    }
 }